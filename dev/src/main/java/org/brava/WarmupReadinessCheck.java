@@ -0,0 +1,23 @@
+package org.brava;
+
+import jakarta.inject.Inject;
+import org.brava.shell.PaymentWarmup;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+@Readiness
+public class WarmupReadinessCheck implements HealthCheck {
+
+    @Inject
+    PaymentWarmup warmup;
+
+    @Override
+    public HealthCheckResponse call() {
+        return HealthCheckResponse.named("warmup")
+                .status(warmup.isComplete())
+                .withData("requests", warmup.completedRequests())
+                .build();
+    }
+
+}
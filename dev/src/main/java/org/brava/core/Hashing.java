@@ -0,0 +1,30 @@
+package org.brava.core;
+
+/**
+ * 64-bit string hash shared by the Bloom filter, the velocity sketches and the routing ring:
+ * FNV-1a over the UTF-16 chars followed by the MurmurHash3 finalizer, so every bit of the
+ * result depends on every char. Fast and well spread, not collision resistant.
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    public static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    public static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
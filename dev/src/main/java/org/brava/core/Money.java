@@ -0,0 +1,109 @@
+package org.brava.core;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.concurrent.ConcurrentHashMap;
+
+public record Money(long minorUnits, int scale, String currency) {
+
+    public static final int STORAGE_SCALE = 2;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L
+    };
+
+    private static final ConcurrentHashMap<String, Integer> SCALES = new ConcurrentHashMap<>();
+
+    public Money {
+        if (scale < 0 || scale >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Unsupported scale " + scale);
+        }
+    }
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        return new Money(minorUnits, scaleOf(currency), currency);
+    }
+
+    public static Money ofMajor(double amount, String currency) {
+        int scale = scaleOf(currency);
+        double minor = amount * POWERS_OF_TEN[scale];
+        // Math.round would turn NaN into 0 and saturate anything past the long range
+        if (!Double.isFinite(minor) || Math.abs(minor) >= 0x1p63) {
+            throw new IllegalArgumentException("Amount " + amount + " " + currency + " is not a representable value");
+        }
+        return new Money(Math.round(minor), scale, currency);
+    }
+
+    public static Money of(BigDecimal amount, String currency) {
+        int scale = scaleOf(currency);
+        return new Money(amount.setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact(), scale, currency);
+    }
+
+    /**
+     * Amounts are stored as NUMERIC(19, 2), so a currency with more minor digits (KWD, BHD, OMR)
+     * would be rounded on save.
+     */
+    public static boolean isStorable(String currency) {
+        return scaleOf(currency) <= STORAGE_SCALE;
+    }
+
+    public static int scaleOf(String currency) {
+        if (currency == null) {
+            return STORAGE_SCALE;
+        }
+        return SCALES.computeIfAbsent(currency, Money::lookupScale);
+    }
+
+    public static long minorUnits(long majorUnits, int scale) {
+        return Math.multiplyExact(majorUnits, POWERS_OF_TEN[scale]);
+    }
+
+    public int compareTo(long unscaled, int otherScale) {
+        if (scale == otherScale) {
+            return Long.compare(minorUnits, unscaled);
+        }
+        if (scale > otherScale) {
+            return compareScaled(minorUnits, unscaled, POWERS_OF_TEN[scale - otherScale]);
+        }
+        return -compareScaled(unscaled, minorUnits, POWERS_OF_TEN[otherScale - scale]);
+    }
+
+    public long toMinor(int targetScale) {
+        if (targetScale == scale) {
+            return minorUnits;
+        }
+        if (targetScale > scale) {
+            return Math.multiplyExact(minorUnits, POWERS_OF_TEN[targetScale - scale]);
+        }
+        return Math.floorDiv(minorUnits, POWERS_OF_TEN[scale - targetScale]);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    private static int compareScaled(long value, long smallerScaleValue, long factor) {
+        long high = Math.multiplyHigh(smallerScaleValue, factor);
+        long low = smallerScaleValue * factor;
+        if ((high != 0 || low < 0) && (high != -1 || low >= 0)) {
+            return smallerScaleValue > 0 ? -1 : 1;
+        }
+        return Long.compare(value, low);
+    }
+
+    private static int lookupScale(String currency) {
+        try {
+            int digits = Currency.getInstance(currency).getDefaultFractionDigits();
+            return digits < 0 ? STORAGE_SCALE : digits;
+        } catch (IllegalArgumentException e) {
+            return STORAGE_SCALE;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package org.brava.core;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 public record Payment(
@@ -8,7 +7,7 @@ public record Payment(
         String idempotencyKey,
         String payerId,
         String payeeId,
-        BigDecimal amount,
+        Money amount,
         String currency,
         String description,
         PaymentStatus status,
@@ -22,7 +21,7 @@ public record Payment(
             String idempotencyKey,
             String payerId,
             String payeeId,
-            BigDecimal amount,
+            Money amount,
             String currency,
             String description
     ) {
@@ -1,13 +1,28 @@
 package org.brava.core;
 
+import java.util.function.Supplier;
+
 public sealed interface PaymentDecision {
 
-    record Approved(String transactionId, String reason) implements PaymentDecision {}
+    /**
+     * The reason is built only when read: approvals are the common case and their reason is
+     * only logged at debug.
+     */
+    record Approved(Supplier<String> reasonSupplier) implements PaymentDecision {
+
+        public String reason() {
+            return reasonSupplier.get();
+        }
+    }
 
     record Declined(String reason, int riskScore) implements PaymentDecision {}
 
-    static PaymentDecision approve(String transactionId, String reason) {
-        return new Approved(transactionId, reason);
+    static PaymentDecision approve(String reason) {
+        return new Approved(() -> reason);
+    }
+
+    static PaymentDecision approve(Supplier<String> reason) {
+        return new Approved(reason);
     }
 
     static PaymentDecision decline(String reason, int riskScore) {
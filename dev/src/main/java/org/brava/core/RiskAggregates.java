@@ -0,0 +1,213 @@
+package org.brava.core;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rolling per-payer and per-payer+payee aggregates kept in daily buckets, so the
+ * risk windows can be read without rescanning payment history.
+ */
+public class RiskAggregates {
+
+    public static final int PAYER_WINDOW_DAYS = 30;
+    public static final int PAIR_WINDOW_DAYS = 7;
+
+    private final ConcurrentHashMap<String, PayerAggregate> payers = new ConcurrentHashMap<>();
+
+    public void record(Payment payment) {
+        long day = payment.createdAt().toLocalDate().toEpochDay();
+        payers.compute(payment.payerId(), (payerId, aggregate) -> {
+            PayerAggregate target = aggregate != null ? aggregate : new PayerAggregate();
+            target.apply(payment, day, 1);
+            return target;
+        });
+    }
+
+    public void revert(Payment payment) {
+        long day = payment.createdAt().toLocalDate().toEpochDay();
+        payers.computeIfPresent(payment.payerId(), (payerId, aggregate) -> {
+            aggregate.apply(payment, day, -1);
+            return aggregate;
+        });
+    }
+
+    public RiskStats stats(String payerId, String payeeId, LocalDateTime asOf) {
+        PayerAggregate aggregate = payers.get(payerId);
+        if (aggregate == null) {
+            return RiskStats.EMPTY;
+        }
+        return aggregate.stats(payeeId, asOf.toLocalDate().toEpochDay());
+    }
+
+    public void evictIdle(LocalDateTime asOf) {
+        long today = asOf.toLocalDate().toEpochDay();
+        for (String payerId : payers.keySet()) {
+            payers.computeIfPresent(payerId, (id, aggregate) -> aggregate.isIdle(today) ? null : aggregate);
+        }
+    }
+
+    public int size() {
+        return payers.size();
+    }
+
+    private static final class PayerAggregate {
+
+        private final long[] days = emptyDays(PAYER_WINDOW_DAYS);
+        private final int[] approvedCounts = new int[PAYER_WINDOW_DAYS];
+        private final long[] approvedAmounts = new long[PAYER_WINDOW_DAYS];
+        private final int[] paymentCounts = new int[PAYER_WINDOW_DAYS];
+        private final Map<String, PairAggregate> pairs = new HashMap<>();
+        private long lastActiveDay = Long.MIN_VALUE;
+        private long lastPrunedDay = Long.MIN_VALUE;
+
+        synchronized void apply(Payment payment, long day, int sign) {
+            int slot = Math.floorMod(day, PAYER_WINDOW_DAYS);
+            if (bucketFor(days, slot, day, sign)) {
+                if (days[slot] != day) {
+                    days[slot] = day;
+                    approvedCounts[slot] = 0;
+                    approvedAmounts[slot] = 0;
+                    paymentCounts[slot] = 0;
+                }
+                paymentCounts[slot] += sign;
+                if (payment.status() == PaymentStatus.APPROVED) {
+                    approvedCounts[slot] += sign;
+                    approvedAmounts[slot] += sign * payment.amount().toMinor(Money.STORAGE_SCALE);
+                }
+            }
+
+            PairAggregate pair = sign > 0
+                    ? pairs.computeIfAbsent(payment.payeeId(), payeeId -> new PairAggregate())
+                    : pairs.get(payment.payeeId());
+            if (pair != null) {
+                pair.apply(payment.createdAt(), day, sign);
+            }
+
+            if (sign > 0) {
+                lastActiveDay = Math.max(lastActiveDay, day);
+                if (day > lastPrunedDay) {
+                    pairs.values().removeIf(p -> p.lastDay <= day - PAIR_WINDOW_DAYS);
+                    lastPrunedDay = day;
+                }
+            }
+        }
+
+        synchronized RiskStats stats(String payeeId, long today) {
+            int approvedCount = 0;
+            long approvedAmount = 0;
+            int paymentCount = 0;
+            for (int i = 0; i < PAYER_WINDOW_DAYS; i++) {
+                if (inWindow(days[i], today, PAYER_WINDOW_DAYS)) {
+                    approvedCount += approvedCounts[i];
+                    approvedAmount += approvedAmounts[i];
+                    paymentCount += paymentCounts[i];
+                }
+            }
+
+            PairAggregate pair = pairs.get(payeeId);
+            int toSamePayee = pair != null ? pair.count(today) : 0;
+            LocalDateTime lastToSamePayee = toSamePayee > 0 ? pair.lastCreatedAt() : null;
+
+            return new RiskStats(approvedCount, approvedAmount, paymentCount, toSamePayee, lastToSamePayee);
+        }
+
+        synchronized boolean isIdle(long today) {
+            return lastActiveDay <= today - PAYER_WINDOW_DAYS;
+        }
+    }
+
+    /**
+     * Keeps the newest {@link #RECENT} timestamps so a reverted payment can be taken out of
+     * {@link #lastCreatedAt()} again. Only more reverts than that in a row, for one pair, would
+     * lose the previous timestamp; the pair then reports none.
+     */
+    private static final class PairAggregate {
+
+        private static final int RECENT = 8;
+
+        private final long[] days = emptyDays(PAIR_WINDOW_DAYS);
+        private final int[] counts = new int[PAIR_WINDOW_DAYS];
+        private final LocalDateTime[] recent = new LocalDateTime[RECENT];
+        private int recentSize;
+        private long lastDay = Long.MIN_VALUE;
+
+        void apply(LocalDateTime createdAt, long day, int sign) {
+            int slot = Math.floorMod(day, PAIR_WINDOW_DAYS);
+            if (bucketFor(days, slot, day, sign)) {
+                if (days[slot] != day) {
+                    days[slot] = day;
+                    counts[slot] = 0;
+                }
+                counts[slot] += sign;
+            }
+            if (sign > 0) {
+                remember(createdAt);
+                lastDay = Math.max(lastDay, day);
+            } else {
+                forget(createdAt);
+            }
+        }
+
+        LocalDateTime lastCreatedAt() {
+            return recentSize > 0 ? recent[recentSize - 1] : null;
+        }
+
+        private void remember(LocalDateTime createdAt) {
+            int at = recentSize;
+            while (at > 0 && recent[at - 1].isAfter(createdAt)) {
+                at--;
+            }
+            if (recentSize == RECENT) {
+                if (at == 0) {
+                    return;
+                }
+                System.arraycopy(recent, 1, recent, 0, at - 1);
+                recent[at - 1] = createdAt;
+                return;
+            }
+            System.arraycopy(recent, at, recent, at + 1, recentSize - at);
+            recent[at] = createdAt;
+            recentSize++;
+        }
+
+        private void forget(LocalDateTime createdAt) {
+            for (int i = recentSize - 1; i >= 0; i--) {
+                if (recent[i].equals(createdAt)) {
+                    System.arraycopy(recent, i + 1, recent, i, recentSize - i - 1);
+                    recent[--recentSize] = null;
+                    return;
+                }
+            }
+        }
+
+        int count(long today) {
+            int count = 0;
+            for (int i = 0; i < PAIR_WINDOW_DAYS; i++) {
+                if (inWindow(days[i], today, PAIR_WINDOW_DAYS)) {
+                    count += counts[i];
+                }
+            }
+            return count;
+        }
+    }
+
+    private static boolean bucketFor(long[] days, int slot, long day, int sign) {
+        if (sign < 0) {
+            return days[slot] == day;
+        }
+        return days[slot] <= day;
+    }
+
+    private static boolean inWindow(long day, long today, int windowDays) {
+        return day > today - windowDays && day <= today;
+    }
+
+    private static long[] emptyDays(int size) {
+        long[] days = new long[size];
+        Arrays.fill(days, Long.MIN_VALUE);
+        return days;
+    }
+}
@@ -1,24 +1,49 @@
 package org.brava.core;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 public record RiskContext(
         String payerId,
         String payeeId,
-        BigDecimal amount,
+        Money amount,
         String currency,
         int successfulPaymentsLast30Days,
-        BigDecimal totalAmountLast30Days,
+        long totalAmountLast30DaysMinor,
         int paymentsToSamePayeeLast7Days,
         LocalDateTime lastPaymentToSamePayee,
-        boolean isFirstTransaction
+        boolean isFirstTransaction,
+        int recentDistinctPayees,
+        int recentPaymentsToSamePayee,
+        LocalDateTime asOf
 ) {
+    private static final long HIGH_VALUE = 10000;
+
+    /**
+     * Context for {@code payment} given the payer's history {@code stats} and short-window
+     * {@code velocity} as seen at {@code asOf}.
+     */
+    public static RiskContext of(Payment payment, RiskStats stats, VelocityStats velocity, LocalDateTime asOf) {
+        return new RiskContext(
+                payment.payerId(),
+                payment.payeeId(),
+                payment.amount(),
+                payment.currency(),
+                stats.approvedPaymentsLast30Days(),
+                stats.approvedAmountLast30DaysMinor(),
+                stats.paymentsToSamePayeeLast7Days(),
+                stats.lastPaymentToSamePayee(),
+                stats.paymentsLast30Days() == 0,
+                velocity.distinctPayees(),
+                velocity.paymentsToSamePayee(),
+                asOf
+        );
+    }
+
     public boolean hasHistory() {
         return !isFirstTransaction;
     }
 
     public boolean isHighValue() {
-        return amount.compareTo(BigDecimal.valueOf(10000)) > 0;
+        return amount.compareTo(HIGH_VALUE, 0) > 0;
     }
 }
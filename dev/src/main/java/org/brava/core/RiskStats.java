@@ -0,0 +1,13 @@
+package org.brava.core;
+
+import java.time.LocalDateTime;
+
+public record RiskStats(
+        int approvedPaymentsLast30Days,
+        long approvedAmountLast30DaysMinor,
+        int paymentsLast30Days,
+        int paymentsToSamePayeeLast7Days,
+        LocalDateTime lastPaymentToSamePayee
+) {
+    public static final RiskStats EMPTY = new RiskStats(0, 0, 0, 0, null);
+}
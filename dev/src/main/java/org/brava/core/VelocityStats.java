@@ -0,0 +1,8 @@
+package org.brava.core;
+
+public record VelocityStats(
+        int distinctPayees,
+        int paymentsToSamePayee
+) {
+    public static final VelocityStats EMPTY = new VelocityStats(0, 0);
+}
@@ -1,40 +1,73 @@
 package org.brava.core.policies;
 
+import org.brava.core.Money;
 import org.brava.core.PaymentDecision;
 import org.brava.core.RiskContext;
 
 import java.math.BigDecimal;
 
-public class AmountLimitPolicy implements PaymentPolicy{
+public class AmountLimitPolicy implements PolicyStage {
 
     private static final BigDecimal ABSOLUTE_MAX = BigDecimal.valueOf(100000);
-    private static final BigDecimal MIN_AMOUNT = BigDecimal.valueOf(0.01);
+    private static final BigDecimal MIN_AMOUNT = BigDecimal.valueOf(1, 2);
+
+    private static final int ABOVE_MAXIMUM = 0;
+    private static final int BELOW_MINIMUM = 1;
+
+    private final long maximumUnscaled;
+    private final int maximumScale;
+    private final long minimumUnscaled;
+    private final int minimumScale;
+    private final String maximumText;
+    private final String minimumText;
+
+    public AmountLimitPolicy() {
+        this(ABSOLUTE_MAX, MIN_AMOUNT);
+    }
+
+    public AmountLimitPolicy(BigDecimal maximum, BigDecimal minimum) {
+        if (minimum.compareTo(maximum) > 0) {
+            throw new IllegalArgumentException("Minimum amount " + minimum + " is above maximum " + maximum);
+        }
+        this.maximumUnscaled = maximum.unscaledValue().longValueExact();
+        this.maximumScale = maximum.scale();
+        this.minimumUnscaled = minimum.unscaledValue().longValueExact();
+        this.minimumScale = minimum.scale();
+        this.maximumText = String.format("%.2f", maximum.doubleValue());
+        this.minimumText = String.format("%.2f", minimum.doubleValue());
+    }
 
     @Override
-    public PaymentDecision evaluate(RiskContext context) {
-        BigDecimal amount = context.amount();
+    public int check(RiskContext context) {
+        Money amount = context.amount();
 
-        if (amount.compareTo(ABSOLUTE_MAX) > 0) {
-            return PaymentDecision.decline(
-                    String.format("Amount %.2f exceeds maximum allowed %.2f", amount, ABSOLUTE_MAX),
-                    100
-            );
+        if (amount.compareTo(maximumUnscaled, maximumScale) > 0) {
+            return ABOVE_MAXIMUM;
+        }
+
+        if (amount.compareTo(minimumUnscaled, minimumScale) < 0) {
+            return BELOW_MINIMUM;
         }
 
-        if (amount.compareTo(MIN_AMOUNT) < 0) {
+        return PASS;
+    }
+
+    @Override
+    public PaymentDecision decline(RiskContext context, int violation) {
+        if (violation == ABOVE_MAXIMUM) {
             return PaymentDecision.decline(
-                    String.format("Amount %.2f below minimum %.2f", amount, MIN_AMOUNT),
-                    50
+                    "Amount " + context.amount() + " exceeds maximum allowed " + maximumText,
+                    100
             );
         }
-
-        return PaymentDecision.approve(
-                generateTransactionId(),
-                "Amount within acceptable range"
+        return PaymentDecision.decline(
+                "Amount " + context.amount() + " below minimum " + minimumText,
+                50
         );
     }
 
-    private String generateTransactionId() {
-        return "txn-" + System.currentTimeMillis();
+    @Override
+    public String approvalReason(RiskContext context) {
+        return "Amount within acceptable range";
     }
 }
@@ -0,0 +1,94 @@
+package org.brava.core.policies;
+
+import org.brava.core.PaymentDecision;
+import org.brava.core.RiskContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class CompiledPolicy implements PaymentPolicy {
+
+    private final PaymentPolicy[] policies;
+    private final PolicyStage[] stages;
+
+    private CompiledPolicy(List<PaymentPolicy> policies) {
+        this.policies = policies.toArray(PaymentPolicy[]::new);
+        this.stages = new PolicyStage[this.policies.length];
+        for (int i = 0; i < this.policies.length; i++) {
+            if (this.policies[i] instanceof PolicyStage stage) {
+                stages[i] = stage;
+            }
+        }
+    }
+
+    public static CompiledPolicy of(PaymentPolicy... policies) {
+        List<PaymentPolicy> flat = new ArrayList<>();
+        for (PaymentPolicy policy : policies) {
+            if (policy instanceof CompiledPolicy compiled) {
+                flat.addAll(List.of(compiled.policies));
+            } else {
+                flat.add(policy);
+            }
+        }
+        if (flat.isEmpty()) {
+            throw new IllegalArgumentException("A compiled policy needs at least one policy");
+        }
+        return new CompiledPolicy(flat);
+    }
+
+    @Override
+    public PaymentDecision evaluate(RiskContext context) {
+        int last = policies.length - 1;
+        for (int i = 0; i < last; i++) {
+            PolicyStage stage = stages[i];
+            if (stage != null) {
+                int violation = stage.check(context);
+                if (violation != PolicyStage.PASS) {
+                    return stage.decline(context, violation);
+                }
+            } else {
+                PaymentDecision decision = policies[i].evaluate(context);
+                if (!decision.isApproved()) {
+                    return decision;
+                }
+            }
+        }
+        return policies[last].evaluate(context);
+    }
+
+    public PaymentDecision evaluate(RiskContext context, PolicyObserver observer) {
+        boolean timed = observer.isTimed();
+        int last = policies.length - 1;
+        for (int i = 0; i <= last; i++) {
+            long start = timed ? System.nanoTime() : 0L;
+            PaymentDecision decision = evaluateAt(i, context, i == last);
+            if (timed) {
+                observer.onEvaluated(policies[i], System.nanoTime() - start);
+            }
+            if (decision != null) {
+                if (decision instanceof PaymentDecision.Declined declined) {
+                    observer.onDeclined(policies[i], declined);
+                }
+                return decision;
+            }
+        }
+        throw new IllegalStateException("The last policy must decide");
+    }
+
+    public List<PaymentPolicy> policies() {
+        return List.of(policies);
+    }
+
+    private PaymentDecision evaluateAt(int index, RiskContext context, boolean last) {
+        if (last) {
+            return policies[index].evaluate(context);
+        }
+        PolicyStage stage = stages[index];
+        if (stage != null) {
+            int violation = stage.check(context);
+            return violation != PolicyStage.PASS ? stage.decline(context, violation) : null;
+        }
+        PaymentDecision decision = policies[index].evaluate(context);
+        return decision.isApproved() ? null : decision;
+    }
+}
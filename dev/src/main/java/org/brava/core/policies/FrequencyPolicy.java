@@ -3,46 +3,66 @@ package org.brava.core.policies;
 import org.brava.core.PaymentDecision;
 import org.brava.core.RiskContext;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
-public class FrequencyPolicy implements PaymentPolicy{
+public class FrequencyPolicy implements PolicyStage {
 
     private static final int MAX_PAYMENTS_TO_SAME_PAYEE_WEEK = 5;
     private static final long MIN_HOURS_BETWEEN_PAYMENTS = 2;
 
+    private static final int TOO_MANY_PAYMENTS = 0;
+    private static final int TOO_SOON = 1;
+
+    private final int maxPaymentsToSamePayeeWeek;
+    private final long minHoursBetweenPayments;
+
+    public FrequencyPolicy() {
+        this(MAX_PAYMENTS_TO_SAME_PAYEE_WEEK, MIN_HOURS_BETWEEN_PAYMENTS);
+    }
+
+    public FrequencyPolicy(int maxPaymentsToSamePayeeWeek, long minHoursBetweenPayments) {
+        this.maxPaymentsToSamePayeeWeek = maxPaymentsToSamePayeeWeek;
+        this.minHoursBetweenPayments = minHoursBetweenPayments;
+    }
+
     @Override
-    public PaymentDecision evaluate(RiskContext context) {
-        if (context.paymentsToSamePayeeLast7Days() >= MAX_PAYMENTS_TO_SAME_PAYEE_WEEK) {
-            return PaymentDecision.decline(
-                    String.format("Too many payments to same recipient (%d in last 7 days)",
-                            context.paymentsToSamePayeeLast7Days()),
-                    90
-            );
+    public int check(RiskContext context) {
+        if (context.paymentsToSamePayeeLast7Days() >= maxPaymentsToSamePayeeWeek) {
+            return TOO_MANY_PAYMENTS;
         }
 
         if (context.lastPaymentToSamePayee() != null) {
-            Duration timeSince = Duration.between(
+            long hoursSince = ChronoUnit.HOURS.between(
                     context.lastPaymentToSamePayee(),
-                    LocalDateTime.now()
+                    context.asOf()
             );
 
-            if (timeSince.toHours() < MIN_HOURS_BETWEEN_PAYMENTS) {
-                return PaymentDecision.decline(
-                        String.format("Please wait at least %d hours between payments to same recipient",
-                                MIN_HOURS_BETWEEN_PAYMENTS),
-                        60
-                );
+            if (hoursSince < minHoursBetweenPayments) {
+                return TOO_SOON;
             }
         }
 
-        return PaymentDecision.approve(
-                generateTransactionId(),
-                "Frequency checks passed"
+        return PASS;
+    }
+
+    @Override
+    public PaymentDecision decline(RiskContext context, int violation) {
+        if (violation == TOO_MANY_PAYMENTS) {
+            return PaymentDecision.decline(
+                    String.format("Too many payments to same recipient (%d in last 7 days)",
+                            context.paymentsToSamePayeeLast7Days()),
+                    90
+            );
+        }
+        return PaymentDecision.decline(
+                String.format("Please wait at least %d hours between payments to same recipient",
+                        minHoursBetweenPayments),
+                60
         );
     }
 
-    private String generateTransactionId() {
-        return "txn-" + System.currentTimeMillis();
+    @Override
+    public String approvalReason(RiskContext context) {
+        return "Frequency checks passed";
     }
 }
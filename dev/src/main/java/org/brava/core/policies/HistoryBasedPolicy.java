@@ -1,60 +1,121 @@
 package org.brava.core.policies;
 
+import org.brava.core.Money;
 import org.brava.core.PaymentDecision;
 import org.brava.core.RiskContext;
 
-import java.math.BigDecimal;
+import java.util.List;
 
-public class HistoryBasedPolicy implements PaymentPolicy{
+public class HistoryBasedPolicy implements PolicyStage {
 
-    private static final BigDecimal LIMIT_NEW_USER = BigDecimal.valueOf(1000);
-    private static final BigDecimal LIMIT_BASIC = BigDecimal.valueOf(5000);
-    private static final BigDecimal LIMIT_TRUSTED = BigDecimal.valueOf(10000);
-    private static final BigDecimal LIMIT_VIP = BigDecimal.valueOf(50000);
+    private static final long LIMIT_NEW_USER = 1000;
+    private static final long LIMIT_BASIC = 5000;
+    private static final long LIMIT_TRUSTED = 10000;
+    private static final long LIMIT_VIP = 50000;
+    private static final long VIP_TOTAL_THRESHOLD = 20000;
 
+    private static final int ABOVE_LIMIT = 0;
 
-    @Override
-    public PaymentDecision evaluate(RiskContext context) {
-        BigDecimal limit = calculateLimit(context);
-
-        if (context.amount().compareTo(limit) > 0) {
-            return PaymentDecision.decline(
-                    String.format("Amount %.2f exceeds history-based limit %.2f", context.amount(), limit),
-                    70
-            );
+    /**
+     * A payer with at least {@code minPayments} successful payments in 30 days, totalling more
+     * than {@code minTotal} when set, may pay up to {@code limit}. Tiers are tried in order.
+     */
+    public record Tier(int minPayments, Long minTotal, long limit) {
+    }
+
+    private static final int FIRST_TRANSACTION = -2;
+    private static final int DEFAULT = -1;
+
+    private final long firstTransactionLimit;
+    private final long defaultLimit;
+    private final int[] tierMinPayments;
+    private final long[] tierMinTotalMinor;
+    private final long[] tierLimits;
+    private final String firstTransactionLimitText;
+    private final String defaultLimitText;
+    private final String[] tierLimitTexts;
+
+    public HistoryBasedPolicy() {
+        this(LIMIT_NEW_USER, LIMIT_NEW_USER, List.of(
+                new Tier(20, VIP_TOTAL_THRESHOLD, LIMIT_VIP),
+                new Tier(10, null, LIMIT_TRUSTED),
+                new Tier(3, null, LIMIT_BASIC)
+        ));
+    }
+
+    public HistoryBasedPolicy(long firstTransactionLimit, long defaultLimit, List<Tier> tiers) {
+        this.firstTransactionLimit = firstTransactionLimit;
+        this.defaultLimit = defaultLimit;
+        this.tierMinPayments = new int[tiers.size()];
+        this.tierMinTotalMinor = new long[tiers.size()];
+        this.tierLimits = new long[tiers.size()];
+        this.tierLimitTexts = new String[tiers.size()];
+        for (int i = 0; i < tiers.size(); i++) {
+            Tier tier = tiers.get(i);
+            tierMinPayments[i] = tier.minPayments();
+            tierMinTotalMinor[i] = tier.minTotal() != null
+                    ? Money.minorUnits(tier.minTotal(), Money.STORAGE_SCALE)
+                    : Long.MIN_VALUE;
+            tierLimits[i] = tier.limit();
+            tierLimitTexts[i] = limitText(tier.limit());
         }
+        this.firstTransactionLimitText = limitText(firstTransactionLimit);
+        this.defaultLimitText = limitText(defaultLimit);
+    }
+
+    @Override
+    public int check(RiskContext context) {
+        return context.amount().compareTo(limitOf(tierOf(context)), 0) > 0 ? ABOVE_LIMIT : PASS;
+    }
 
-        return PaymentDecision.approve(
-                generateTransactionId(),
-                String.format("Amount within history-based limit %.2f", limit)
+    @Override
+    public PaymentDecision decline(RiskContext context, int violation) {
+        return PaymentDecision.decline(
+                "Amount " + context.amount() + " exceeds history-based limit " + limitTextOf(tierOf(context)),
+                70
         );
     }
 
-    private BigDecimal calculateLimit(RiskContext context) {
+    @Override
+    public String approvalReason(RiskContext context) {
+        return "Amount within history-based limit " + limitTextOf(tierOf(context));
+    }
+
+    private int tierOf(RiskContext context) {
         if (context.isFirstTransaction()) {
-            return LIMIT_NEW_USER;
+            return FIRST_TRANSACTION;
         }
 
         int history = context.successfulPaymentsLast30Days();
-        BigDecimal total = context.totalAmountLast30Days();
+        long total = context.totalAmountLast30DaysMinor();
 
-        if (history >= 20 && total.compareTo(BigDecimal.valueOf(20000)) > 0) {
-            return LIMIT_VIP;
+        for (int i = 0; i < tierLimits.length; i++) {
+            if (history >= tierMinPayments[i] && total > tierMinTotalMinor[i]) {
+                return i;
+            }
         }
 
-        if (history >= 10) {
-            return LIMIT_TRUSTED;
-        }
+        return DEFAULT;
+    }
 
-        if (history >= 3) {
-            return LIMIT_BASIC;
-        }
+    private long limitOf(int tier) {
+        return switch (tier) {
+            case FIRST_TRANSACTION -> firstTransactionLimit;
+            case DEFAULT -> defaultLimit;
+            default -> tierLimits[tier];
+        };
+    }
 
-        return LIMIT_NEW_USER;
+    private String limitTextOf(int tier) {
+        return switch (tier) {
+            case FIRST_TRANSACTION -> firstTransactionLimitText;
+            case DEFAULT -> defaultLimitText;
+            default -> tierLimitTexts[tier];
+        };
     }
 
-    private String generateTransactionId() {
-        return "txn-" + System.currentTimeMillis();
+    private static String limitText(long limit) {
+        return String.format("%.2f", (double) limit);
     }
 
 }
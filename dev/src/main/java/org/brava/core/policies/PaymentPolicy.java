@@ -9,13 +9,7 @@ public interface PaymentPolicy {
     PaymentDecision evaluate(RiskContext context);
 
     default PaymentPolicy and(PaymentPolicy other) {
-        return context -> {
-            PaymentDecision result = this.evaluate(context);
-            if (!result.isApproved()) {
-                return result;
-            }
-            return other.evaluate(context);
-        };
+        return CompiledPolicy.of(this, other);
     }
 
     default String getName() {
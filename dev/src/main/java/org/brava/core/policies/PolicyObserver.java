@@ -0,0 +1,19 @@
+package org.brava.core.policies;
+
+import org.brava.core.PaymentDecision;
+
+public interface PolicyObserver {
+
+    PolicyObserver NONE = new PolicyObserver() {
+    };
+
+    default boolean isTimed() {
+        return false;
+    }
+
+    default void onEvaluated(PaymentPolicy policy, long nanos) {
+    }
+
+    default void onDeclined(PaymentPolicy policy, PaymentDecision.Declined decision) {
+    }
+}
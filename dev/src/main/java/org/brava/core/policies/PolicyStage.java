@@ -0,0 +1,24 @@
+package org.brava.core.policies;
+
+import org.brava.core.PaymentDecision;
+import org.brava.core.RiskContext;
+
+public interface PolicyStage extends PaymentPolicy {
+
+    int PASS = -1;
+
+    int check(RiskContext context);
+
+    PaymentDecision decline(RiskContext context, int violation);
+
+    String approvalReason(RiskContext context);
+
+    @Override
+    default PaymentDecision evaluate(RiskContext context) {
+        int violation = check(context);
+        if (violation != PASS) {
+            return decline(context, violation);
+        }
+        return PaymentDecision.approve(() -> approvalReason(context));
+    }
+}
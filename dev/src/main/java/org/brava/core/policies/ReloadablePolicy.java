@@ -0,0 +1,30 @@
+package org.brava.core.policies;
+
+import org.brava.core.PaymentDecision;
+import org.brava.core.RiskContext;
+
+/**
+ * Holds the active compiled chain behind a volatile reference, so a new rule set can be
+ * swapped in while requests keep evaluating the one they started with.
+ */
+public final class ReloadablePolicy implements PaymentPolicy {
+
+    private volatile CompiledPolicy current;
+
+    public ReloadablePolicy(CompiledPolicy initial) {
+        this.current = initial;
+    }
+
+    @Override
+    public PaymentDecision evaluate(RiskContext context) {
+        return current.evaluate(context);
+    }
+
+    public CompiledPolicy current() {
+        return current;
+    }
+
+    public void swap(CompiledPolicy next) {
+        current = next;
+    }
+}
@@ -0,0 +1,58 @@
+package org.brava.core.policies;
+
+import org.brava.core.PaymentDecision;
+import org.brava.core.RiskContext;
+
+public class VelocityPolicy implements PolicyStage {
+
+    private static final int MAX_DISTINCT_PAYEES = 30;
+    private static final int MAX_PAYMENTS_TO_SAME_PAYEE = 10;
+
+    private static final int FAN_OUT = 0;
+    private static final int BURST = 1;
+
+    private final int maxDistinctPayees;
+    private final int maxPaymentsToSamePayee;
+
+    public VelocityPolicy() {
+        this(MAX_DISTINCT_PAYEES, MAX_PAYMENTS_TO_SAME_PAYEE);
+    }
+
+    public VelocityPolicy(int maxDistinctPayees, int maxPaymentsToSamePayee) {
+        this.maxDistinctPayees = maxDistinctPayees;
+        this.maxPaymentsToSamePayee = maxPaymentsToSamePayee;
+    }
+
+    @Override
+    public int check(RiskContext context) {
+        // The sketches only count payments already seen, so this one is the +1
+        if (context.recentDistinctPayees() >= maxDistinctPayees) {
+            return FAN_OUT;
+        }
+
+        if (context.recentPaymentsToSamePayee() >= maxPaymentsToSamePayee) {
+            return BURST;
+        }
+
+        return PASS;
+    }
+
+    @Override
+    public PaymentDecision decline(RiskContext context, int violation) {
+        if (violation == FAN_OUT) {
+            return PaymentDecision.decline(
+                    String.format("Too many distinct recipients recently (about %d)", context.recentDistinctPayees()),
+                    85
+            );
+        }
+        return PaymentDecision.decline(
+                String.format("Too many recent payments to same recipient (about %d)", context.recentPaymentsToSamePayee()),
+                80
+        );
+    }
+
+    @Override
+    public String approvalReason(RiskContext context) {
+        return "Velocity checks passed";
+    }
+}
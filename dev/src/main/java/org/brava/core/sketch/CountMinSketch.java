@@ -0,0 +1,72 @@
+package org.brava.core.sketch;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-Min sketch over a sliding window: one counter matrix per epoch bank, {@value #ROWS}
+ * rows of {@code width} counters each. Estimates never undercount within the window.
+ */
+public final class CountMinSketch {
+
+    private static final int ROWS = 4;
+
+    private final int mask;
+    private final SlidingWindow window;
+    private final AtomicIntegerArray[] banks;
+
+    public CountMinSketch(int width, long windowMillis, int generations) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Width must be a power of two: " + width);
+        }
+        this.mask = width - 1;
+        this.window = new SlidingWindow(windowMillis, generations);
+        this.banks = new AtomicIntegerArray[window.banks()];
+        for (int i = 0; i < banks.length; i++) {
+            banks[i] = new AtomicIntegerArray(ROWS * width);
+        }
+    }
+
+    public void add(long keyHash, long timeMillis) {
+        long epoch = window.epochOf(timeMillis);
+        long current = window.advance(epoch, this::clear);
+        if (!window.isLive(epoch, current)) {
+            return;
+        }
+        AtomicIntegerArray counters = banks[window.bankOf(epoch)];
+        int h1 = (int) keyHash;
+        int h2 = (int) (keyHash >>> 32);
+        for (int row = 0; row < ROWS; row++) {
+            counters.incrementAndGet(row * (mask + 1) + ((h1 + row * h2) & mask));
+        }
+    }
+
+    public int estimate(long keyHash, long timeMillis) {
+        long epoch = window.epochOf(timeMillis);
+        long current = window.advance(epoch, this::clear);
+        int h1 = (int) keyHash;
+        int h2 = (int) (keyHash >>> 32);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < ROWS; row++) {
+            int index = row * (mask + 1) + ((h1 + row * h2) & mask);
+            int sum = 0;
+            for (long t = epoch - window.generations() + 1; t <= epoch; t++) {
+                if (window.isLive(t, current)) {
+                    sum += banks[window.bankOf(t)].get(index);
+                }
+            }
+            estimate = Math.min(estimate, sum);
+        }
+        return estimate;
+    }
+
+    public long sizeInBytes() {
+        return (long) banks.length * ROWS * (mask + 1) * Integer.BYTES;
+    }
+
+    private void clear(int bank) {
+        AtomicIntegerArray counters = banks[bank];
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+}
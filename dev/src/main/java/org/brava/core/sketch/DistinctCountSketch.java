@@ -0,0 +1,151 @@
+package org.brava.core.sketch;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Distinct items per key over a sliding window, in fixed memory (a virtual HyperLogLog).
+ * All keys share one pool of one-byte registers per epoch bank; a key owns
+ * {@value #KEY_REGISTERS} pseudo-random positions in it. Other keys' items landing on those
+ * positions are noise, removed by subtracting the pool's average load per register, which is
+ * measured on a fixed sample of the pool. Registers are packed eight to a long and raised with
+ * CAS.
+ */
+public final class DistinctCountSketch {
+
+    private static final int KEY_REGISTER_BITS = 6;
+    private static final int KEY_REGISTERS = 1 << KEY_REGISTER_BITS;
+    private static final int SAMPLE_WORDS = 2048;
+    private static final long SAMPLE_REFRESH_NANOS = 100_000_000L;
+    private static final double ALPHA_KEY = 0.709;
+    private static final double ALPHA_POOL = 0.7213;
+
+    private final int poolBits;
+    private final SlidingWindow window;
+    private final AtomicLongArray[] banks;
+
+    private volatile long sampledEpoch = Long.MIN_VALUE;
+    private volatile long sampledAt;
+    private volatile double loadPerRegister;
+
+    public DistinctCountSketch(int registers, long windowMillis, int generations) {
+        if (Integer.bitCount(registers) != 1 || registers < SAMPLE_WORDS * Long.BYTES) {
+            throw new IllegalArgumentException("Registers must be a power of two of at least "
+                    + SAMPLE_WORDS * Long.BYTES + ": " + registers);
+        }
+        this.poolBits = Integer.numberOfTrailingZeros(registers);
+        this.window = new SlidingWindow(windowMillis, generations);
+        this.banks = new AtomicLongArray[window.banks()];
+        for (int i = 0; i < banks.length; i++) {
+            banks[i] = new AtomicLongArray(registers / Long.BYTES);
+        }
+    }
+
+    public void add(long keyHash, long itemHash, long timeMillis) {
+        long epoch = window.epochOf(timeMillis);
+        long current = window.advance(epoch, this::clear);
+        if (!window.isLive(epoch, current)) {
+            return;
+        }
+        AtomicLongArray registers = banks[window.bankOf(epoch)];
+        int position = position(keyHash, (int) (itemHash >>> (Long.SIZE - KEY_REGISTER_BITS)));
+        long rank = Long.numberOfLeadingZeros((itemHash << KEY_REGISTER_BITS) | (1L << (KEY_REGISTER_BITS - 1))) + 1;
+        int index = position >>> 3;
+        int shift = (position & 7) << 3;
+        long word = registers.get(index);
+        while (((word >>> shift) & 0xFF) < rank
+                && !registers.compareAndSet(index, word, (word & ~(0xFFL << shift)) | (rank << shift))) {
+            word = registers.get(index);
+        }
+    }
+
+    public int estimate(long keyHash, long timeMillis) {
+        long epoch = window.epochOf(timeMillis);
+        long current = window.advance(epoch, this::clear);
+
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < KEY_REGISTERS; i++) {
+            int position = position(keyHash, i);
+            int rank = 0;
+            for (long t = epoch - window.generations() + 1; t <= epoch; t++) {
+                if (window.isLive(t, current)) {
+                    rank = Math.max(rank, (int) ((banks[window.bankOf(t)].get(position >>> 3) >>> ((position & 7) << 3)) & 0xFF));
+                }
+            }
+            sum += Math.scalb(1.0, -rank);
+            if (rank == 0) {
+                zeros++;
+            }
+        }
+
+        double own = ALPHA_KEY * KEY_REGISTERS * KEY_REGISTERS / sum;
+        if (own <= 2.5 * KEY_REGISTERS && zeros > 0) {
+            own = KEY_REGISTERS * Math.log((double) KEY_REGISTERS / zeros);
+        }
+        double noise = KEY_REGISTERS * loadPerRegister(epoch, current);
+        return (int) Math.max(0, Math.round(own - noise));
+    }
+
+    public long sizeInBytes() {
+        return (long) banks.length * (1L << poolBits);
+    }
+
+    private int position(long keyHash, int register) {
+        long step = (keyHash * 0x9e3779b97f4a7c15L) | 1;
+        return (int) ((keyHash + register * step) >>> (Long.SIZE - poolBits));
+    }
+
+    /**
+     * Average number of distinct items per pool register over the live banks. Positions are
+     * uniform, so the first registers of the pool are a fair sample of all of them.
+     */
+    private double loadPerRegister(long epoch, long current) {
+        long now = System.nanoTime();
+        if (sampledEpoch == epoch && now - sampledAt < SAMPLE_REFRESH_NANOS) {
+            return loadPerRegister;
+        }
+
+        double sum = 0;
+        int zeros = 0;
+        for (int w = 0; w < SAMPLE_WORDS; w++) {
+            long merged = 0;
+            for (long t = epoch - window.generations() + 1; t <= epoch; t++) {
+                if (window.isLive(t, current)) {
+                    merged = maxBytes(merged, banks[window.bankOf(t)].get(w));
+                }
+            }
+            for (int shift = 0; shift < Long.SIZE; shift += 8) {
+                int rank = (int) ((merged >>> shift) & 0xFF);
+                sum += Math.scalb(1.0, -rank);
+                if (rank == 0) {
+                    zeros++;
+                }
+            }
+        }
+        int sampled = SAMPLE_WORDS * Long.BYTES;
+        double load = ALPHA_POOL * sampled / sum;
+        if (load <= 2.5 && zeros > 0) {
+            load = Math.log((double) sampled / zeros);
+        }
+
+        loadPerRegister = load;
+        sampledAt = now;
+        sampledEpoch = epoch;
+        return load;
+    }
+
+    private static long maxBytes(long a, long b) {
+        long max = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 8) {
+            max |= Math.max((a >>> shift) & 0xFF, (b >>> shift) & 0xFF) << shift;
+        }
+        return max;
+    }
+
+    private void clear(int bank) {
+        AtomicLongArray registers = banks[bank];
+        for (int i = 0; i < registers.length(); i++) {
+            registers.set(i, 0L);
+        }
+    }
+}
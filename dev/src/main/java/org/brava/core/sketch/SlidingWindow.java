@@ -0,0 +1,67 @@
+package org.brava.core.sketch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Splits a window into {@code generations} epochs, each backed by its own bank, plus one spare
+ * bank that is cleared ahead of the epoch that will use it. A query covers the last
+ * {@code generations} epochs, so between (generations - 1) / generations of the window and
+ * the whole window. Banks are cleared by whichever thread moves the epoch forward; an update
+ * racing that move may be lost or land in the next epoch, which only matters at the boundary.
+ */
+final class SlidingWindow {
+
+    private final long epochMillis;
+    private final int generations;
+    private final AtomicLong current = new AtomicLong(Long.MIN_VALUE);
+
+    SlidingWindow(long windowMillis, int generations) {
+        if (generations < 1 || windowMillis < generations) {
+            throw new IllegalArgumentException("Window of " + windowMillis + " ms cannot be split in " + generations);
+        }
+        this.epochMillis = windowMillis / generations;
+        this.generations = generations;
+    }
+
+    int banks() {
+        return generations + 1;
+    }
+
+    int generations() {
+        return generations;
+    }
+
+    long epochOf(long timeMillis) {
+        return Math.floorDiv(timeMillis, epochMillis);
+    }
+
+    int bankOf(long epoch) {
+        return (int) Math.floorMod(epoch, (long) banks());
+    }
+
+    /**
+     * Moves the window to {@code epoch} if it is ahead, clearing the banks of the epochs that
+     * fell out of it. Returns the current epoch.
+     */
+    long advance(long epoch, IntConsumer clear) {
+        long seen = current.get();
+        while (epoch > seen) {
+            if (current.compareAndSet(seen, epoch)) {
+                if (seen != Long.MIN_VALUE) {
+                    // seen + 1 was cleared when seen started; anything later still holds an old epoch
+                    for (long t = Math.max(seen + 2, epoch + 1 - generations); t <= epoch + 1; t++) {
+                        clear.accept(bankOf(t));
+                    }
+                }
+                return epoch;
+            }
+            seen = current.get();
+        }
+        return seen;
+    }
+
+    boolean isLive(long epoch, long currentEpoch) {
+        return epoch > currentEpoch - generations && epoch <= currentEpoch;
+    }
+}
@@ -0,0 +1,53 @@
+package org.brava.core.sketch;
+
+import org.brava.core.Hashing;
+import org.brava.core.Payment;
+import org.brava.core.VelocityStats;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Short-window payer velocity in fixed memory: distinct payees per payer and payments per
+ * payer and payee, both approximate and biased upwards.
+ */
+public final class VelocitySketches {
+
+    private final DistinctCountSketch distinctPayees;
+    private final CountMinSketch pairCounts;
+
+    public VelocitySketches(Duration window, int generations, int distinctPayeeWidth, int pairCountWidth) {
+        this.distinctPayees = new DistinctCountSketch(distinctPayeeWidth, window.toMillis(), generations);
+        this.pairCounts = new CountMinSketch(pairCountWidth, window.toMillis(), generations);
+    }
+
+    public void record(Payment payment) {
+        long time = millis(payment.createdAt());
+        long payer = Hashing.hash(payment.payerId());
+        long payee = Hashing.hash(payment.payeeId());
+        distinctPayees.add(payer, payee, time);
+        pairCounts.add(pair(payer, payee), time);
+    }
+
+    public VelocityStats stats(String payerId, String payeeId, LocalDateTime asOf) {
+        long time = millis(asOf);
+        long payer = Hashing.hash(payerId);
+        return new VelocityStats(
+                distinctPayees.estimate(payer, time),
+                pairCounts.estimate(pair(payer, Hashing.hash(payeeId)), time)
+        );
+    }
+
+    public long sizeInBytes() {
+        return distinctPayees.sizeInBytes() + pairCounts.sizeInBytes();
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1000 + time.getNano() / 1_000_000;
+    }
+
+    private static long pair(long payer, long payee) {
+        return Hashing.mix(payer ^ Long.rotateLeft(payee, 31) * 0x9e3779b97f4a7c15L);
+    }
+}
@@ -0,0 +1,102 @@
+package org.brava.infrastructure.audit;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Decodes audit journal segments to CSV on stdout.
+ * Usage: AuditJournalReader &lt;segment-or-directory&gt;...
+ */
+public final class AuditJournalReader {
+
+    private static final String HEADER = "created_at,payment_id,idempotency_key,payer_id,payee_id,amount,currency,"
+            + "status,risk_score,transaction_id,idempotency_lookup_us,build_context_us,policies_us,save_us";
+
+    private AuditJournalReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: AuditJournalReader <segment-or-directory>...");
+            System.exit(2);
+        }
+
+        List<Path> segments = new ArrayList<>();
+        for (String arg : args) {
+            Path path = Path.of(arg);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = Files.list(path)) {
+                    files.filter(MappedAuditJournal::isSegmentFile).sorted().forEach(segments::add);
+                }
+            } else {
+                segments.add(path);
+            }
+        }
+
+        PrintStream out = System.out;
+        out.println(HEADER);
+        for (Path segment : segments) {
+            read(segment, out);
+        }
+        out.flush();
+    }
+
+    static void read(Path path, PrintStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            if (!AuditLayout.isSegment(segment)) {
+                System.err.println("Skipping " + path + ": not an audit segment");
+                return;
+            }
+
+            for (int offset = AuditLayout.HEADER_SIZE;
+                 offset + AuditLayout.RECORD_SIZE <= segment.capacity();
+                 offset += AuditLayout.RECORD_SIZE) {
+                if (AuditLayout.isCommitted(segment, offset)) {
+                    out.println(format(segment, offset));
+                }
+            }
+        }
+    }
+
+    private static String format(MappedByteBuffer segment, int offset) {
+        long micros = segment.getLong(offset + AuditLayout.CREATED_AT_MICROS);
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(
+                Math.floorDiv(micros, 1_000_000L), (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+        BigDecimal amount = BigDecimal.valueOf(
+                segment.getLong(offset + AuditLayout.AMOUNT_MINOR), segment.get(offset + AuditLayout.AMOUNT_SCALE));
+
+        return String.join(",",
+                createdAt.toString(),
+                Long.toString(segment.getLong(offset + AuditLayout.PAYMENT_ID)),
+                AuditLayout.getString(segment, offset + AuditLayout.IDEMPOTENCY_KEY, AuditLayout.IDEMPOTENCY_KEY_LENGTH),
+                AuditLayout.getString(segment, offset + AuditLayout.PAYER_ID, AuditLayout.PARTY_ID_LENGTH),
+                AuditLayout.getString(segment, offset + AuditLayout.PAYEE_ID, AuditLayout.PARTY_ID_LENGTH),
+                amount.toPlainString(),
+                AuditLayout.getString(segment, offset + AuditLayout.CURRENCY, AuditLayout.CURRENCY_LENGTH),
+                AuditLayout.status(segment, offset).name(),
+                Integer.toString(segment.getInt(offset + AuditLayout.RISK_SCORE)),
+                AuditLayout.getString(segment, offset + AuditLayout.TRANSACTION_ID, AuditLayout.TRANSACTION_ID_LENGTH),
+                micros(segment.getLong(offset + AuditLayout.IDEMPOTENCY_LOOKUP_NANOS)),
+                micros(segment.getLong(offset + AuditLayout.BUILD_CONTEXT_NANOS)),
+                micros(segment.getLong(offset + AuditLayout.POLICIES_NANOS)),
+                micros(segment.getLong(offset + AuditLayout.SAVE_NANOS)));
+    }
+
+    private static String micros(long nanos) {
+        return Long.toString(nanos / 1_000);
+    }
+}
@@ -0,0 +1,149 @@
+package org.brava.infrastructure.audit;
+
+import org.brava.core.Hashing;
+import org.brava.core.Payment;
+import org.brava.core.PaymentStatus;
+import org.brava.shell.AuditEvent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+
+/**
+ * Fixed binary layout of a journal segment: a header followed by 256-byte records. A record
+ * is visible once its commit word is written, which happens last with release semantics.
+ * <p>
+ * Strings are a length byte followed by UTF-8 bytes. A value longer than its field keeps a
+ * prefix cut on a code point boundary, sets {@link #TRUNCATED} in the length byte and ends
+ * the field with {@link Hashing#hash} of the full value, so it can still be matched to its
+ * payment. Version 1 segments, written before the flag existed, decode the same way.
+ */
+final class AuditLayout {
+
+    static final long SEGMENT_MAGIC = 0x5041594155444954L;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 256;
+    static final int COMMITTED = 0x41554431;
+
+    static final int COMMIT = 0;
+    static final int STATUS = 4;
+    static final int AMOUNT_SCALE = 5;
+    static final int RISK_SCORE = 8;
+    static final int CREATED_AT_MICROS = 16;
+    static final int PAYMENT_ID = 24;
+    static final int AMOUNT_MINOR = 32;
+    static final int IDEMPOTENCY_LOOKUP_NANOS = 40;
+    static final int BUILD_CONTEXT_NANOS = 48;
+    static final int POLICIES_NANOS = 56;
+    static final int SAVE_NANOS = 64;
+    static final int CURRENCY = 72;
+    static final int IDEMPOTENCY_KEY = 76;
+    static final int PAYER_ID = 140;
+    static final int PAYEE_ID = 180;
+    static final int TRANSACTION_ID = 220;
+
+    static final int CURRENCY_LENGTH = 4;
+    static final int IDEMPOTENCY_KEY_LENGTH = 64;
+    static final int PARTY_ID_LENGTH = 40;
+    static final int TRANSACTION_ID_LENGTH = 36;
+
+    static final int TRUNCATED = 0x80;
+    static final int TRUNCATED_HASH_LENGTH = 8;
+
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+
+    private AuditLayout() {
+    }
+
+    static void writeHeader(ByteBuffer segment, long sequence) {
+        segment.putLong(0, SEGMENT_MAGIC);
+        segment.putInt(8, VERSION);
+        segment.putInt(12, RECORD_SIZE);
+        segment.putLong(16, sequence);
+    }
+
+    static boolean isSegment(ByteBuffer segment) {
+        return segment.capacity() >= HEADER_SIZE
+                && segment.getLong(0) == SEGMENT_MAGIC
+                && segment.getInt(8) >= 1
+                && segment.getInt(8) <= VERSION
+                && segment.getInt(12) == RECORD_SIZE;
+    }
+
+    static void write(ByteBuffer segment, int offset, AuditEvent event) {
+        Payment payment = event.payment();
+        segment.put(offset + STATUS, (byte) payment.status().ordinal());
+        segment.put(offset + AMOUNT_SCALE, (byte) payment.amount().scale());
+        segment.putInt(offset + RISK_SCORE, event.riskScore());
+        segment.putLong(offset + CREATED_AT_MICROS, toMicros(payment));
+        segment.putLong(offset + PAYMENT_ID, payment.id() != null ? payment.id() : 0L);
+        segment.putLong(offset + AMOUNT_MINOR, payment.amount().minorUnits());
+        segment.putLong(offset + IDEMPOTENCY_LOOKUP_NANOS, event.idempotencyLookupNanos());
+        segment.putLong(offset + BUILD_CONTEXT_NANOS, event.buildContextNanos());
+        segment.putLong(offset + POLICIES_NANOS, event.policiesNanos());
+        segment.putLong(offset + SAVE_NANOS, event.saveNanos());
+        putString(segment, offset + CURRENCY, CURRENCY_LENGTH, payment.currency());
+        putString(segment, offset + IDEMPOTENCY_KEY, IDEMPOTENCY_KEY_LENGTH, payment.idempotencyKey());
+        putString(segment, offset + PAYER_ID, PARTY_ID_LENGTH, payment.payerId());
+        putString(segment, offset + PAYEE_ID, PARTY_ID_LENGTH, payment.payeeId());
+        putString(segment, offset + TRANSACTION_ID, TRANSACTION_ID_LENGTH, payment.transactionId());
+        INT_VIEW.setRelease(segment, offset + COMMIT, COMMITTED);
+    }
+
+    static boolean isCommitted(ByteBuffer segment, int offset) {
+        return (int) INT_VIEW.getAcquire(segment, offset + COMMIT) == COMMITTED;
+    }
+
+    static PaymentStatus status(ByteBuffer segment, int offset) {
+        return STATUSES[segment.get(offset + STATUS)];
+    }
+
+    static String getString(ByteBuffer segment, int offset, int length) {
+        int header = segment.get(offset) & 0xFF;
+        int size = Math.min(header & ~TRUNCATED, length - 1);
+        byte[] bytes = new byte[size];
+        segment.get(offset + 1, bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        if ((header & TRUNCATED) == 0) {
+            return value;
+        }
+        return value + "...#" + String.format("%016x", segment.getLong(offset + length - TRUNCATED_HASH_LENGTH));
+    }
+
+    private static void putString(ByteBuffer segment, int offset, int length, String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (bytes.length < length) {
+            segment.put(offset, (byte) bytes.length);
+            segment.put(offset + 1, bytes);
+            return;
+        }
+        if (length <= TRUNCATED_HASH_LENGTH + 1) {
+            throw new IllegalArgumentException("Value does not fit its " + length + "-byte audit field: " + value);
+        }
+        int size = codePointBoundary(bytes, length - 1 - TRUNCATED_HASH_LENGTH);
+        segment.put(offset, (byte) (TRUNCATED | size));
+        segment.put(offset + 1, bytes, 0, size);
+        segment.putLong(offset + length - TRUNCATED_HASH_LENGTH, Hashing.hash(value));
+    }
+
+    /**
+     * Largest prefix length up to {@code limit} that does not split a UTF-8 sequence: backs
+     * off while the first byte left out is a continuation byte.
+     */
+    static int codePointBoundary(byte[] utf8, int limit) {
+        int end = limit;
+        while (end > 0 && (utf8[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        return end;
+    }
+
+    private static long toMicros(Payment payment) {
+        return payment.createdAt().toEpochSecond(ZoneOffset.UTC) * 1_000_000L + payment.createdAt().getNano() / 1_000;
+    }
+}
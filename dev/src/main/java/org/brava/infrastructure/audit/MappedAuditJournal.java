@@ -0,0 +1,195 @@
+package org.brava.infrastructure.audit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.brava.shell.AuditEvent;
+import org.brava.shell.AuditJournal;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+@ApplicationScoped
+public class MappedAuditJournal implements AuditJournal {
+
+    private static final Logger LOG = Logger.getLogger(MappedAuditJournal.class);
+
+    static final String SEGMENT_PREFIX = "payments-";
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    @Inject
+    TransactionSynchronizationRegistry transactions;
+
+    @ConfigProperty(name = "payment.audit.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "payment.audit.directory", defaultValue = "audit")
+    Path directory;
+
+    @ConfigProperty(name = "payment.audit.segment-size", defaultValue = "67108864")
+    int segmentSize;
+
+    @ConfigProperty(name = "payment.audit.max-segments", defaultValue = "64")
+    int maxSegments;
+
+    private volatile Segment current;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            current = open(lastSequence() + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open audit journal in " + directory, e);
+        }
+        LOG.infof("Audit journal opened - Segment: %s", current.path);
+    }
+
+    @Override
+    public void record(AuditEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (transactions.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            append(event);
+            return;
+        }
+        transactions.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    append(event);
+                }
+            }
+        });
+    }
+
+    void append(AuditEvent event) {
+        while (true) {
+            Segment segment = current;
+            long offset = segment.position.getAndAdd(AuditLayout.RECORD_SIZE);
+            if (offset + AuditLayout.RECORD_SIZE <= segment.buffer.capacity()) {
+                AuditLayout.write(segment.buffer, (int) offset, event);
+                return;
+            }
+            rotate(segment);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        Segment segment = current;
+        if (segment != null) {
+            segment.buffer.force();
+        }
+    }
+
+    /**
+     * One thread opens the next segment while the others wait for it. If opening fails, the
+     * waiters of that attempt fail with the same error instead of waiting on a segment that
+     * will never come; the next append past the full segment tries to rotate again.
+     */
+    private void rotate(Segment full) {
+        if (!full.rotating.compareAndSet(false, true)) {
+            while (current == full && full.rotating.get()) {
+                Thread.onSpinWait();
+            }
+            if (current == full) {
+                throw new UncheckedIOException("Could not rotate audit journal", full.rotationFailure);
+            }
+            return;
+        }
+        try {
+            current = open(full.sequence + 1);
+        } catch (IOException e) {
+            full.rotationFailure = e;
+            full.rotating.set(false);
+            throw new UncheckedIOException("Could not rotate audit journal", e);
+        }
+        full.buffer.force();
+        deleteOldSegments();
+        LOG.debugf("Audit journal rotated - Segment: %s", current.path);
+    }
+
+    Segment open(long sequence) throws IOException {
+        Path path = directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            AuditLayout.writeHeader(buffer, sequence);
+            return new Segment(sequence, path, buffer);
+        }
+    }
+
+    private long lastSequence() throws IOException {
+        List<Path> segments = segments();
+        return segments.isEmpty() ? 0 : sequenceOf(segments.get(segments.size() - 1));
+    }
+
+    private void deleteOldSegments() {
+        try {
+            List<Path> segments = segments();
+            for (int i = 0; i < segments.size() - maxSegments; i++) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        } catch (IOException e) {
+            LOG.warnf(e, "Could not delete old audit segments in %s", directory);
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(MappedAuditJournal::isSegmentFile).sorted().toList();
+        }
+    }
+
+    static boolean isSegmentFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    static final class Segment {
+
+        private final long sequence;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final AtomicLong position = new AtomicLong(AuditLayout.HEADER_SIZE);
+        private final AtomicBoolean rotating = new AtomicBoolean();
+        private volatile IOException rotationFailure;
+
+        Segment(long sequence, Path path, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -1,19 +1,32 @@
 package org.brava.infrastructure.config;
 
-import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
 import org.brava.core.policies.AmountLimitPolicy;
+import org.brava.core.policies.CompiledPolicy;
 import org.brava.core.policies.FrequencyPolicy;
 import org.brava.core.policies.HistoryBasedPolicy;
 import org.brava.core.policies.PaymentPolicy;
+import org.brava.core.policies.ReloadablePolicy;
+import org.brava.core.policies.VelocityPolicy;
+
+import java.util.Optional;
 
 public class PolicyConfiguration {
 
     @Produces
-    @ApplicationScoped
-    public PaymentPolicy composedPolicy() {
-        return new AmountLimitPolicy()
-                .and(new HistoryBasedPolicy())
-                .and(new FrequencyPolicy());
+    @Singleton
+    public PaymentPolicy composedPolicy(RiskRulesWatcher rules) {
+        Optional<ReloadablePolicy> loaded = rules.policy();
+        return loaded.isPresent() ? loaded.get() : defaultPolicy();
+    }
+
+    public static CompiledPolicy defaultPolicy() {
+        return CompiledPolicy.of(
+                new AmountLimitPolicy(),
+                new HistoryBasedPolicy(),
+                new FrequencyPolicy(),
+                new VelocityPolicy()
+        );
     }
 }
@@ -0,0 +1,21 @@
+package org.brava.infrastructure.config;
+
+import io.quarkus.arc.profile.IfBuildProfile;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import org.brava.infrastructure.memory.InMemoryPaymentRepository;
+import org.brava.shell.PaymentRepository;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+public class RepositoryConfiguration {
+
+    @ConfigProperty(name = "payment.repository.memory.shards", defaultValue = "64")
+    int shards;
+
+    @Produces
+    @ApplicationScoped
+    @IfBuildProfile("memory")
+    public PaymentRepository inMemoryPaymentRepository() {
+        return new InMemoryPaymentRepository(shards);
+    }
+}
@@ -0,0 +1,97 @@
+package org.brava.infrastructure.config;
+
+import org.brava.core.policies.AmountLimitPolicy;
+import org.brava.core.policies.CompiledPolicy;
+import org.brava.core.policies.FrequencyPolicy;
+import org.brava.core.policies.HistoryBasedPolicy;
+import org.brava.core.policies.PaymentPolicy;
+import org.brava.core.policies.VelocityPolicy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Builds the policy chain from a rules file (see risk-rules.properties). Each entry of
+ * {@code policies} becomes the same stage class as the built-in chain, so a loaded rule set
+ * evaluates exactly like the hand-written one.
+ */
+public final class RiskRules {
+
+    private RiskRules() {
+    }
+
+    public static CompiledPolicy load(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            return load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read risk rules from " + file, e);
+        }
+    }
+
+    public static CompiledPolicy load(InputStream in) throws IOException {
+        Properties rules = new Properties();
+        rules.load(in);
+        return compile(rules);
+    }
+
+    static CompiledPolicy compile(Properties rules) {
+        List<PaymentPolicy> chain = new ArrayList<>();
+        for (String name : list(required(rules, "policies"))) {
+            chain.add(switch (name) {
+                case "amount-limit" -> new AmountLimitPolicy(
+                        new BigDecimal(required(rules, "amount-limit.maximum")),
+                        new BigDecimal(required(rules, "amount-limit.minimum")));
+                case "history-based" -> historyBased(rules);
+                case "frequency" -> new FrequencyPolicy(
+                        Integer.parseInt(required(rules, "frequency.max-payments-to-same-payee-week")),
+                        Long.parseLong(required(rules, "frequency.min-hours-between-payments")));
+                case "velocity" -> new VelocityPolicy(
+                        Integer.parseInt(required(rules, "velocity.max-distinct-payees")),
+                        Integer.parseInt(required(rules, "velocity.max-payments-to-same-payee")));
+                default -> throw new IllegalArgumentException("Unknown risk policy: " + name);
+            });
+        }
+        return CompiledPolicy.of(chain.toArray(PaymentPolicy[]::new));
+    }
+
+    private static HistoryBasedPolicy historyBased(Properties rules) {
+        List<HistoryBasedPolicy.Tier> tiers = new ArrayList<>();
+        for (String tier : list(rules.getProperty("history-based.tiers", ""))) {
+            String prefix = "history-based.tier." + tier + ".";
+            String minTotal = rules.getProperty(prefix + "min-total");
+            tiers.add(new HistoryBasedPolicy.Tier(
+                    Integer.parseInt(required(rules, prefix + "min-payments")),
+                    minTotal != null ? Long.valueOf(minTotal.strip()) : null,
+                    Long.parseLong(required(rules, prefix + "limit"))));
+        }
+        return new HistoryBasedPolicy(
+                Long.parseLong(required(rules, "history-based.first-transaction-limit")),
+                Long.parseLong(required(rules, "history-based.default-limit")),
+                tiers);
+    }
+
+    private static String required(Properties rules, String key) {
+        String value = rules.getProperty(key);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing risk rule: " + key);
+        }
+        return value.strip();
+    }
+
+    private static List<String> list(String value) {
+        List<String> items = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.isBlank()) {
+                items.add(item.strip());
+            }
+        }
+        return items;
+    }
+}
@@ -0,0 +1,68 @@
+package org.brava.infrastructure.config;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.brava.core.policies.ReloadablePolicy;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+
+@ApplicationScoped
+public class RiskRulesWatcher {
+
+    private static final Logger LOG = Logger.getLogger(RiskRulesWatcher.class);
+
+    @ConfigProperty(name = "payment.risk.rules.file")
+    Optional<Path> file;
+
+    private ReloadablePolicy policy;
+    private FileTime loadedVersion;
+
+    @PostConstruct
+    void init() {
+        if (file.isEmpty()) {
+            return;
+        }
+        loadedVersion = lastModified();
+        policy = new ReloadablePolicy(RiskRules.load(file.get()));
+        LOG.infof("Risk rules loaded from %s - Policies: %s", file.get(), policy.current().policies().size());
+    }
+
+    public Optional<ReloadablePolicy> policy() {
+        return Optional.ofNullable(policy);
+    }
+
+    @Scheduled(every = "{payment.risk.rules.refresh-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void reloadIfModified() {
+        if (policy == null) {
+            return;
+        }
+        FileTime modified = lastModified();
+        if (modified == null || modified.equals(loadedVersion)) {
+            return;
+        }
+        try {
+            policy.swap(RiskRules.load(file.get()));
+            loadedVersion = modified;
+            LOG.infof("Risk rules reloaded from %s", file.get());
+        } catch (RuntimeException e) {
+            // Keep evaluating the previous rules; retried on the next tick once the file is fixed
+            LOG.errorf(e, "Invalid risk rules in %s, keeping the current rules", file.get());
+        }
+    }
+
+    private FileTime lastModified() {
+        try {
+            return Files.getLastModifiedTime(file.get());
+        } catch (IOException e) {
+            LOG.warnf(e, "Could not stat risk rules file %s", file.get());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.brava.infrastructure.grpc;
+
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits unary calls up to an adaptive concurrency limit and rejects the rest with
+ * RESOURCE_EXHAUSTED, so a slow database shows up as fast rejections instead of a growing
+ * worker queue. Calls whose deadline has passed are rejected before any work starts.
+ */
+@ApplicationScoped
+public class AdmissionControlInterceptor implements ServerInterceptor {
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "payment.admission.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "payment.admission.initial-limit", defaultValue = "20")
+    int initialLimit;
+
+    @ConfigProperty(name = "payment.admission.min-limit", defaultValue = "4")
+    int minLimit;
+
+    @ConfigProperty(name = "payment.admission.max-limit", defaultValue = "200")
+    int maxLimit;
+
+    @ConfigProperty(name = "payment.admission.latency-target", defaultValue = "50ms")
+    Duration latencyTarget;
+
+    @ConfigProperty(name = "payment.admission.backoff-ratio", defaultValue = "0.9")
+    double backoffRatio;
+
+    private AimdConcurrencyLimit limit;
+    private Counter limitRejections;
+    private Counter deadlineRejections;
+    private Timer queueWait;
+
+    @PostConstruct
+    void init() {
+        limit = new AimdConcurrencyLimit(initialLimit, minLimit, maxLimit, latencyTarget.toNanos(), backoffRatio);
+        limitRejections = rejections("limit");
+        deadlineRejections = rejections("deadline");
+        queueWait = Timer.builder("payment.admission.queue.duration")
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder("payment.admission.limit", limit, AimdConcurrencyLimit::limit)
+                .register(registry);
+        Gauge.builder("payment.admission.in_flight", limit, AimdConcurrencyLimit::inFlight)
+                .register(registry);
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        if (!enabled || call.getMethodDescriptor().getType() != MethodDescriptor.MethodType.UNARY) {
+            return next.startCall(call, headers);
+        }
+
+        Deadline deadline = Context.current().getDeadline();
+        if (deadline != null && deadline.isExpired()) {
+            deadlineRejections.increment();
+            call.close(Status.DEADLINE_EXCEEDED.withDescription("Deadline expired before admission"), new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+        if (!limit.tryAcquire()) {
+            limitRejections.increment();
+            call.close(Status.RESOURCE_EXHAUSTED.withDescription("Concurrency limit of " + limit.limit() + " reached"),
+                    new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        ServerCall<ReqT, RespT> releasing = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                if (released.compareAndSet(false, true)) {
+                    limit.release(System.nanoTime() - start, isDropped(status));
+                }
+                super.close(status, trailers);
+            }
+        };
+        try {
+            return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(next.startCall(releasing, headers)) {
+                @Override
+                public void onCancel() {
+                    if (released.compareAndSet(false, true)) {
+                        limit.release(System.nanoTime() - start, true);
+                    }
+                    super.onCancel();
+                }
+            };
+        } catch (RuntimeException e) {
+            if (released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - start, true);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Called on the executing thread: records how long the admitted call queued and refuses
+     * to start it if the client deadline passed meanwhile.
+     */
+    public void beforeExecution(Deadline deadline, long admittedAt) {
+        queueWait.record(System.nanoTime() - admittedAt, TimeUnit.NANOSECONDS);
+        if (deadline != null && deadline.isExpired()) {
+            deadlineRejections.increment();
+            throw Status.DEADLINE_EXCEEDED.withDescription("Deadline expired while queued").asRuntimeException();
+        }
+    }
+
+    private static boolean isDropped(Status status) {
+        return switch (status.getCode()) {
+            case DEADLINE_EXCEEDED, UNAVAILABLE, RESOURCE_EXHAUSTED -> true;
+            default -> false;
+        };
+    }
+
+    private Counter rejections(String reason) {
+        return Counter.builder("payment.admission.rejected")
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
@@ -0,0 +1,68 @@
+package org.brava.infrastructure.grpc;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Additive-increase/multiplicative-decrease concurrency limit: calls finishing within the
+ * latency target raise the limit by about one per limit's worth of calls, slower or dropped
+ * calls cut it by the backoff ratio.
+ */
+final class AimdConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private long lastBackoffNanos = System.nanoTime();
+
+    AimdConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyTargetNanos, double backoffRatio) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.backoffRatio = backoffRatio;
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long rttNanos, boolean dropped) {
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        onSample(rttNanos, dropped, inFlightAtRelease);
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long rttNanos, boolean dropped, int inFlightAtRelease) {
+        double current = limit;
+        if (dropped || rttNanos > latencyTargetNanos) {
+            // Back off once per round trip, not once per call that was already in flight when the limit dropped
+            long now = System.nanoTime();
+            if (now - rttNanos - lastBackoffNanos > 0) {
+                lastBackoffNanos = now;
+                limit = Math.max(minLimit, current * backoffRatio);
+            }
+        } else if (inFlightAtRelease * 2 >= current) {
+            // Only grow when the limit is actually being used
+            limit = Math.min(maxLimit, current + 1 / current);
+        }
+    }
+}
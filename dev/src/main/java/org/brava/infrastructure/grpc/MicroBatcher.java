@@ -0,0 +1,203 @@
+package org.brava.infrastructure.grpc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Groups items into lists of up to {@code size}, closing a list early once its first item has
+ * waited {@code linger}. Unlike a timed group, a list closed while downstream has no demand is
+ * held until it is requested. Upstream is only asked for as many items as the emitted lists
+ * freed, so at most one list is buffered while the previous one is being processed.
+ */
+final class MicroBatcher<T> implements Flow.Publisher<List<T>> {
+
+    private final Flow.Publisher<T> upstream;
+    private final int size;
+    private final long lingerNanos;
+    private final ScheduledExecutorService timer;
+
+    MicroBatcher(Flow.Publisher<T> upstream, int size, Duration linger, ScheduledExecutorService timer) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.upstream = upstream;
+        this.size = size;
+        this.lingerNanos = linger.toNanos();
+        this.timer = timer;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<T>> downstream) {
+        upstream.subscribe(new Batching(downstream));
+    }
+
+    private final class Batching implements Flow.Subscriber<T>, Flow.Subscription {
+
+        private final Flow.Subscriber<? super List<T>> downstream;
+        private final AtomicInteger wip = new AtomicInteger();
+
+        // Guarded by this
+        private Flow.Subscription subscription;
+        private List<T> pending = new ArrayList<>();
+        private boolean lingered;
+        private ScheduledFuture<?> lingerTask;
+        private long demand;
+        private boolean done;
+        private Throwable failure;
+        private boolean cancelled;
+        private boolean terminated;
+
+        Batching(Flow.Subscriber<? super List<T>> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            synchronized (this) {
+                this.subscription = subscription;
+            }
+            downstream.onSubscribe(this);
+            subscription.request(size);
+        }
+
+        @Override
+        public void onNext(T item) {
+            synchronized (this) {
+                if (done || cancelled) {
+                    return;
+                }
+                pending.add(item);
+                if (pending.size() == 1 && pending.size() < size) {
+                    List<T> batch = pending;
+                    lingerTask = timer.schedule(() -> linger(batch), lingerNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+                failure = throwable;
+            }
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+            }
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            synchronized (this) {
+                if (n <= 0) {
+                    done = true;
+                    failure = new IllegalArgumentException("Requested " + n + " batches, must be positive");
+                    cancelUpstream();
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                cancelUpstream();
+            }
+        }
+
+        private void linger(List<T> batch) {
+            synchronized (this) {
+                if (pending != batch) {
+                    return;
+                }
+                lingered = true;
+            }
+            drain();
+        }
+
+        private void cancelLinger() {
+            if (lingerTask != null) {
+                lingerTask.cancel(false);
+                lingerTask = null;
+            }
+        }
+
+        private void cancelUpstream() {
+            cancelLinger();
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                while (true) {
+                    List<T> batch = null;
+                    Throwable error = null;
+                    boolean complete = false;
+                    boolean replenish;
+                    Flow.Subscription upstreamSubscription;
+                    synchronized (this) {
+                        if (cancelled || terminated) {
+                            break;
+                        }
+                        upstreamSubscription = subscription;
+                        replenish = !done;
+                        if (failure != null) {
+                            error = failure;
+                            terminated = true;
+                            cancelLinger();
+                        } else if (demand > 0 && !pending.isEmpty() && (pending.size() >= size || lingered || done)) {
+                            batch = pending;
+                            pending = new ArrayList<>(batch.size());
+                            lingered = false;
+                            cancelLinger();
+                            demand--;
+                        } else if (done && pending.isEmpty()) {
+                            complete = true;
+                            terminated = true;
+                        } else {
+                            break;
+                        }
+                    }
+                    if (error != null) {
+                        downstream.onError(error);
+                    } else if (complete) {
+                        downstream.onComplete();
+                    } else {
+                        downstream.onNext(batch);
+                        if (replenish) {
+                            upstreamSubscription.request(batch.size());
+                        }
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
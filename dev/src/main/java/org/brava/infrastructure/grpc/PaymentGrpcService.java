@@ -1,17 +1,46 @@
 package org.brava.infrastructure.grpc;
 
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.Status;
 import io.quarkus.grpc.GrpcService;
-import io.smallrye.common.annotation.Blocking;
+import io.quarkus.grpc.RegisterInterceptor;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.inject.Inject;
+import org.brava.core.Money;
 import org.brava.core.Payment;
+import org.brava.core.PaymentStatus;
+import org.brava.infrastructure.routing.PayerRouter;
+import org.brava.shell.GroupCommitWriter;
+import org.brava.shell.LatencyBudgetExceededException;
 import org.brava.shell.ProcessPaymentCommand;
+import org.brava.shell.PaymentCursor;
+import org.brava.shell.PaymentMetrics;
+import org.brava.shell.PaymentOutcomeUnknownException;
+import org.brava.shell.PaymentQueryHandler;
 import org.brava.shell.ProcessPaymentHandler;
+import org.brava.shell.ProcessingExecutor;
+import org.brava.shell.RequestDeadline;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
-import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @GrpcService
+@RegisterInterceptor(AdmissionControlInterceptor.class)
 public class PaymentGrpcService extends MutinyPaymentServiceGrpc.PaymentServiceImplBase {
 
     private static final Logger LOG = Logger.getLogger(PaymentGrpcService.class);
@@ -19,29 +48,356 @@ public class PaymentGrpcService extends MutinyPaymentServiceGrpc.PaymentServiceI
     @Inject
     ProcessPaymentHandler handler;
 
-    @Blocking
+    @Inject
+    ProcessingExecutor processing;
+
+    @Inject
+    PaymentMetrics metrics;
+
+    @Inject
+    GroupCommitWriter groupCommit;
+
+    @Inject
+    PayerRouter router;
+
+    @Inject
+    AdmissionControlInterceptor admission;
+
+    @Inject
+    PaymentQueryHandler queries;
+
+    @ConfigProperty(name = "payment.grpc.stream.batch-size", defaultValue = "100")
+    int streamBatchSize;
+
+    @ConfigProperty(name = "payment.grpc.stream.batch-linger", defaultValue = "5ms")
+    Duration streamBatchLinger;
+
+    @ConfigProperty(name = "payment.grpc.query.page-size", defaultValue = "500")
+    int queryPageSize;
+
     @Override
     public Uni<PaymentResponse> processPayment(PaymentRequest request) {
 
-        LOG.infof("Received gRPC request - IdempotencyKey: %s", request.getIdempotencyKey());
+        LOG.debugf("Received gRPC request - IdempotencyKey: %s", request.getIdempotencyKey());
+
+        Optional<MutinyPaymentServiceGrpc.MutinyPaymentServiceStub> owner = router.ownerOf(request.getPayerId());
+        if (owner.isPresent()) {
+            return forward(owner.get(), request);
+        }
+        return processLocally(request);
+    }
+
+    private Uni<PaymentResponse> forward(MutinyPaymentServiceGrpc.MutinyPaymentServiceStub owner, PaymentRequest request) {
+        long budgetMillis = processing.latencyBudget().toMillis();
+        Deadline deadline = Context.current().getDeadline();
+        if (deadline != null) {
+            budgetMillis = Math.min(budgetMillis, deadline.timeRemaining(TimeUnit.MILLISECONDS));
+        }
+        return owner.withDeadlineAfter(budgetMillis, TimeUnit.MILLISECONDS)
+                .processPayment(request)
+                .onFailure(e -> Status.fromThrowable(e).getCode() == Status.Code.UNAVAILABLE)
+                .recoverWithUni(e -> {
+                    // Availability over affinity: decided with this instance's in-memory state, which
+                    // lacks the payer's recent history, and never seen by the owner's
+                    LOG.warnf("Payer owner unavailable, processing locally - PayerId: %s", request.getPayerId());
+                    return processLocally(request);
+                });
+    }
+
+    private Uni<PaymentResponse> processLocally(PaymentRequest request) {
+        ProcessPaymentCommand command;
+        try {
+            command = toCommand(request);
+        } catch (IllegalArgumentException e) {
+            return Uni.createFrom().failure(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+        }
+        Deadline deadline = Context.current().getDeadline();
+        long admittedAt = System.nanoTime();
+        // The timeout below only stops waiting; the handler needs the same deadline to not save
+        long budgetNanos = processing.latencyBudget().toNanos();
+        if (deadline != null) {
+            budgetNanos = Math.min(budgetNanos, deadline.timeRemaining(TimeUnit.NANOSECONDS));
+        }
+        RequestDeadline budget = RequestDeadline.after(admittedAt, budgetNanos);
+
+        return Uni.createFrom().item(() -> {
+                    admission.beforeExecution(deadline, admittedAt);
+                    Payment result = handle(command, budget);
+
+                    return toResponse(result);
+                })
+                .runSubscriptionOn(processing.executor(command.payerId()))
+                .onSubscription().invoke(subscription -> metrics.requestStarted())
+                .eventually(metrics::requestFinished)
+                .ifNoItem().after(processing.latencyBudget())
+                .failWith(() -> Status.DEADLINE_EXCEEDED
+                        .withDescription("Payment not processed within " + processing.latencyBudget())
+                        .asRuntimeException())
+                .onFailure(LatencyBudgetExceededException.class)
+                .transform(e -> Status.DEADLINE_EXCEEDED.withDescription(e.getMessage()).asRuntimeException())
+                // May still commit: not a decline or failure, the client retries with the same key to learn it
+                .onFailure(PaymentOutcomeUnknownException.class)
+                .transform(e -> Status.UNKNOWN.withDescription(e.getMessage()).asRuntimeException())
+                // A full payer partition is overload: retryable, and counted by admission control
+                .onFailure(RejectedExecutionException.class)
+                .transform(e -> Status.RESOURCE_EXHAUSTED.withDescription(e.getMessage()).asRuntimeException());
+    }
+
+    @Override
+    public Multi<PaymentResponse> processPaymentStream(Multi<PaymentRequest> requests) {
+        // Not routed: payers owned by other instances are decided here, without payer affinity
+        return Multi.createFrom()
+                .publisher(new MicroBatcher<>(requests, streamBatchSize, streamBatchLinger,
+                        Infrastructure.getDefaultWorkerPool()))
+                .onItem().transformToUniAndConcatenate(this::processBatch)
+                .onItem().disjoint();
+    }
+
+    @Override
+    public Uni<PaymentDetails> getPayment(GetPaymentRequest request) {
+        boolean byTransactionId = !request.getTransactionId().isEmpty();
+        if (byTransactionId == !request.getIdempotencyKey().isEmpty()) {
+            return Uni.createFrom().failure(Status.INVALID_ARGUMENT
+                    .withDescription("Set exactly one of transactionId or idempotencyKey")
+                    .asRuntimeException());
+        }
+
+        return Uni.createFrom().item(() -> byTransactionId
+                        ? queries.findByTransactionId(request.getTransactionId())
+                        : queries.findByIdempotencyKey(request.getIdempotencyKey()))
+                .runSubscriptionOn(processing.executor())
+                .map(found -> found.map(this::toDetails).orElseThrow(() -> Status.NOT_FOUND
+                        .withDescription("Payment not found")
+                        .asRuntimeException()));
+    }
+
+    @Override
+    public Multi<PaymentDetails> listPayerPayments(ListPayerPaymentsRequest request) {
+        if (request.getPayerId().isEmpty()) {
+            return Multi.createFrom().failure(Status.INVALID_ARGUMENT
+                    .withDescription("payerId is required")
+                    .asRuntimeException());
+        }
+        PaymentCursor start;
+        try {
+            start = request.getAfterCursor().isEmpty() ? null : decodeCursor(request.getAfterCursor());
+        } catch (RuntimeException e) {
+            return Multi.createFrom().failure(Status.INVALID_ARGUMENT
+                    .withDescription("Invalid cursor: " + request.getAfterCursor())
+                    .asRuntimeException());
+        }
+        long limit = request.getLimit() > 0 ? request.getLimit() : Long.MAX_VALUE;
 
-        ProcessPaymentCommand command = new ProcessPaymentCommand(
+        // One keyset page per downstream demand, each read in its own short transaction
+        return Multi.createBy().repeating()
+                .uni(() -> new PayerPages(start, limit), pages -> Uni.createFrom()
+                        .item(() -> nextPage(request.getPayerId(), pages))
+                        .runSubscriptionOn(processing.executor()))
+                .until(List::isEmpty)
+                .onItem().<Payment>disjoint()
+                .map(this::toDetails);
+    }
+
+    private List<Payment> nextPage(String payerId, PayerPages pages) {
+        if (pages.exhausted) {
+            return List.of();
+        }
+        int requested = (int) Math.min(queryPageSize, pages.remaining);
+        List<Payment> page = queries.payerPage(payerId, pages.cursor, requested);
+        pages.remaining -= page.size();
+        pages.exhausted = page.size() < requested || pages.remaining == 0;
+        if (!page.isEmpty()) {
+            pages.cursor = PaymentCursor.of(page.get(page.size() - 1));
+        }
+        return page;
+    }
+
+    private Uni<List<PaymentResponse>> processBatch(List<PaymentRequest> batch) {
+        LOG.debugf("Processing stream batch - Size: %d", batch.size());
+
+        List<ProcessPaymentCommand> commands = new ArrayList<>(batch.size());
+        PaymentResponse[] invalid = null;
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                commands.add(toCommand(batch.get(i)));
+            } catch (IllegalArgumentException e) {
+                if (invalid == null) {
+                    invalid = new PaymentResponse[batch.size()];
+                }
+                invalid[i] = failed(batch.get(i).getIdempotencyKey(), e);
+            }
+        }
+        if (invalid == null) {
+            return processCommands(commands);
+        }
+        PaymentResponse[] answered = invalid;
+        if (commands.isEmpty()) {
+            return Uni.createFrom().item(Arrays.asList(answered));
+        }
+        return processCommands(commands).map(processed -> {
+            // Invalid requests keep their place in the batch's responses
+            Iterator<PaymentResponse> next = processed.iterator();
+            List<PaymentResponse> responses = new ArrayList<>(answered.length);
+            for (PaymentResponse response : answered) {
+                responses.add(response != null ? response : next.next());
+            }
+            return responses;
+        });
+    }
+
+    private Uni<List<PaymentResponse>> processCommands(List<ProcessPaymentCommand> commands) {
+        if (!processing.isPartitioned()) {
+            return Uni.createFrom()
+                    .item(() -> processSlice(commands))
+                    .runSubscriptionOn(processing.executor());
+        }
+
+        // Each payer's slice of the batch runs on the partition that owns the payer
+        Map<Integer, List<Integer>> slotsByPartition = new HashMap<>();
+        for (int i = 0; i < commands.size(); i++) {
+            slotsByPartition.computeIfAbsent(processing.partitionOf(commands.get(i).payerId()), p -> new ArrayList<>())
+                    .add(i);
+        }
+        PaymentResponse[] responses = new PaymentResponse[commands.size()];
+        List<CompletableFuture<Void>> slices = new ArrayList<>(slotsByPartition.size());
+        slotsByPartition.forEach((partition, slots) -> {
+            List<ProcessPaymentCommand> slice = slots.stream().map(commands::get).toList();
+            CompletableFuture<List<PaymentResponse>> processed;
+            try {
+                processed = CompletableFuture.supplyAsync(() -> processSlice(slice), processing.partition(partition));
+            } catch (RejectedExecutionException e) {
+                // A full partition fails only its own payers; the rest of the batch still runs
+                LOG.warnf("Payment partition %d is full, failing %d stream payments", partition, slice.size());
+                processed = CompletableFuture.completedFuture(slice.stream().map(c -> failed(c.idempotencyKey(), e)).toList());
+            }
+            slices.add(processed
+                    .thenAccept(results -> {
+                        for (int j = 0; j < slots.size(); j++) {
+                            responses[slots.get(j)] = results.get(j);
+                        }
+                    }));
+        });
+        return Uni.createFrom().completionStage(CompletableFuture
+                .allOf(slices.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> Arrays.asList(responses)));
+    }
+
+    private List<PaymentResponse> processSlice(List<ProcessPaymentCommand> commands) {
+        List<PaymentResponse> responses = new ArrayList<>(commands.size());
+        try {
+            for (Payment result : handler.handleBatch(commands)) {
+                responses.add(toResponse(result));
+            }
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "Stream batch failed, retrying %d payments individually", commands.size());
+            responses.clear();
+            for (ProcessPaymentCommand command : commands) {
+                responses.add(handleIndividually(command));
+            }
+        }
+        return responses;
+    }
+
+    private PaymentResponse handleIndividually(ProcessPaymentCommand command) {
+        try {
+            return toResponse(handle(command, RequestDeadline.NONE));
+        } catch (RuntimeException e) {
+            LOG.errorf(e, "Payment failed - IdempotencyKey: %s", command.idempotencyKey());
+            return failed(command.idempotencyKey(), e);
+        }
+    }
+
+    private static PaymentResponse failed(String idempotencyKey, RuntimeException e) {
+        return PaymentResponse.newBuilder()
+                .setIdempotencyKey(idempotencyKey)
+                .setStatus(PaymentStatus.FAILED.name())
+                .setMessage(e.getMessage() != null ? e.getMessage() : "")
+                .build();
+    }
+
+    private Payment handle(ProcessPaymentCommand command, RequestDeadline deadline) {
+        try {
+            return groupCommit.isEnabled()
+                    ? handler.handleGroupCommitted(command, deadline)
+                    : handler.handle(command, deadline);
+        } catch (LatencyBudgetExceededException | PaymentOutcomeUnknownException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            if (deadline.isExpired()) {
+                // Most likely rolled back at commit for running past the deadline
+                throw new LatencyBudgetExceededException("Payment " + command.idempotencyKey()
+                        + " not completed within the latency budget", e);
+            }
+            // A duplicate key that lost the insert race is answered with the stored payment
+            return handler.findProcessed(command.idempotencyKey()).orElseThrow(() -> e);
+        }
+    }
+
+    private ProcessPaymentCommand toCommand(PaymentRequest request) {
+        return new ProcessPaymentCommand(
                 request.getIdempotencyKey(),
                 request.getPayerId(),
                 request.getPayeeId(),
-                BigDecimal.valueOf(request.getAmount()),
+                toMoney(request),
                 request.getCurrency(),
                 request.getDescription()
         );
+    }
 
-        return Uni.createFrom().item(() -> {
-            Payment result = handler.handle(command);
+    private Money toMoney(PaymentRequest request) {
+        if (!Money.isStorable(request.getCurrency())) {
+            throw new IllegalArgumentException("Currency " + request.getCurrency() + " has "
+                    + Money.scaleOf(request.getCurrency()) + " decimal places; amounts are stored with "
+                    + Money.STORAGE_SCALE);
+        }
+        if (request.getAmountMinor() != 0) {
+            return Money.ofMinor(request.getAmountMinor(), request.getCurrency());
+        }
+        return Money.ofMajor(request.getAmount(), request.getCurrency());
+    }
 
-            return PaymentResponse.newBuilder()
-                    .setTransactionId(result.transactionId() != null ? result.transactionId() : "")
-                    .setStatus(result.status().name())
-                    .setMessage(result.message() != null ? result.message() : "")
-                    .build();
-        });
+    private PaymentDetails toDetails(Payment payment) {
+        return PaymentDetails.newBuilder()
+                .setId(payment.id())
+                .setTransactionId(payment.transactionId() != null ? payment.transactionId() : "")
+                .setIdempotencyKey(payment.idempotencyKey())
+                .setPayerId(payment.payerId())
+                .setPayeeId(payment.payeeId())
+                .setAmountMinor(payment.amount().minorUnits())
+                .setCurrency(payment.currency())
+                .setDescription(payment.description() != null ? payment.description() : "")
+                .setStatus(payment.status().name())
+                .setMessage(payment.message() != null ? payment.message() : "")
+                .setCreatedAt(payment.createdAt().toString())
+                .setCursor(payment.createdAt() + "/" + payment.id())
+                .build();
+    }
+
+    private PaymentCursor decodeCursor(String cursor) {
+        int separator = cursor.lastIndexOf('/');
+        return new PaymentCursor(
+                LocalDateTime.parse(cursor.substring(0, separator)),
+                Long.parseLong(cursor.substring(separator + 1)));
+    }
+
+    private PaymentResponse toResponse(Payment result) {
+        return PaymentResponse.newBuilder()
+                .setTransactionId(result.transactionId() != null ? result.transactionId() : "")
+                .setStatus(result.status().name())
+                .setMessage(result.message() != null ? result.message() : "")
+                .setIdempotencyKey(result.idempotencyKey())
+                .build();
+    }
+
+    private static final class PayerPages {
+
+        private PaymentCursor cursor;
+        private long remaining;
+        private boolean exhausted;
+
+        PayerPages(PaymentCursor cursor, long remaining) {
+            this.cursor = cursor;
+            this.remaining = remaining;
+        }
     }
 }
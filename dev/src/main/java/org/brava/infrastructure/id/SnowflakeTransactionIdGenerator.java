@@ -0,0 +1,101 @@
+package org.brava.infrastructure.id;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.brava.shell.TransactionIdGenerator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Snowflake-style ids: 41 bits of milliseconds since 2024-01-01, 10 bits of node id
+ * and a 12 bit per-millisecond sequence. When a millisecond runs out of sequence
+ * numbers the generator borrows the next one instead of waiting. At most
+ * {@value #MAX_BORROWED_MILLIS} milliseconds are borrowed ahead of the clock; past that callers
+ * wait for it, so a restart cannot reuse ids handed out from borrowed milliseconds.
+ */
+@ApplicationScoped
+public class SnowflakeTransactionIdGenerator implements TransactionIdGenerator {
+
+    private static final Logger LOG = Logger.getLogger(SnowflakeTransactionIdGenerator.class);
+
+    static final long EPOCH_MILLIS = 1_704_067_200_000L;
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    static final long MAX_BORROWED_MILLIS = 5;
+
+    private static final String PREFIX = "txn-";
+
+    @ConfigProperty(name = "payment.transaction-id.node-id")
+    Optional<Integer> configuredNodeId;
+
+    @ConfigProperty(name = "payment.transaction-id.require-node-id", defaultValue = "true")
+    boolean requireNodeId;
+
+    private final AtomicLong state = new AtomicLong();
+    private long nodeBits;
+
+    @PostConstruct
+    void init() {
+        if (configuredNodeId.isEmpty() && requireNodeId) {
+            throw new IllegalStateException("payment.transaction-id.node-id (PAYMENT_NODE_ID) is required: "
+                    + "instances sharing a node id generate colliding transaction ids");
+        }
+        long nodeId = configuredNodeId.map(Integer::longValue).orElseGet(this::nodeIdFromHostname);
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("payment.transaction-id.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        nodeBits = nodeId << SEQUENCE_BITS;
+        LOG.infof("Transaction id generator initialized - Node: %d", nodeId);
+    }
+
+    @Override
+    public String nextTransactionId() {
+        return PREFIX + nextId();
+    }
+
+    public long nextId() {
+        while (true) {
+            long current = state.get();
+            long lastMillis = current >>> SEQUENCE_BITS;
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+
+            long next;
+            if (now > lastMillis) {
+                next = now << SEQUENCE_BITS;
+            } else if ((current & SEQUENCE_MASK) < SEQUENCE_MASK) {
+                next = current + 1;
+            } else if (lastMillis - now < MAX_BORROWED_MILLIS) {
+                next = (lastMillis + 1) << SEQUENCE_BITS;
+            } else {
+                LockSupport.parkNanos(100_000);
+                continue;
+            }
+
+            if (state.compareAndSet(current, next)) {
+                long millis = next >>> SEQUENCE_BITS;
+                return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    private long nodeIdFromHostname() {
+        try {
+            String host = InetAddress.getLocalHost().getHostName();
+            long nodeId = Math.floorMod(host.hashCode(), (int) MAX_NODE_ID + 1);
+            LOG.warnf("payment.transaction-id.node-id not set, derived %d from hostname %s. Hostnames can "
+                    + "hash to the same node id and produce duplicate transaction ids; set PAYMENT_NODE_ID "
+                    + "to a value unique per instance", nodeId, host);
+            return nodeId;
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("payment.transaction-id.node-id is required when the hostname cannot be resolved", e);
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package org.brava.infrastructure.memory;
+
+import org.brava.core.Payment;
+import org.brava.core.RiskStats;
+import org.brava.shell.PaymentCursor;
+import org.brava.shell.PaymentRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Columnar payment store sharded by payer. Each shard keeps time-ordered postings per
+ * payer and per payer+payee, so the windowed queries are range scans.
+ */
+public class InMemoryPaymentRepository implements PaymentRepository {
+
+    private static final int INITIAL_SHARD_CAPACITY = 1024;
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final KeyIndex keys;
+    private final AtomicLong ids = new AtomicLong();
+
+    public InMemoryPaymentRepository(int shardCount) {
+        int size = Integer.highestOneBit(Math.max(1, shardCount - 1) << 1);
+        shards = new Shard[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new Shard(i);
+        }
+        shardMask = size - 1;
+        keys = new KeyIndex(size);
+    }
+
+    @Override
+    public Payment save(Payment payment) {
+        Payment stored = payment.id() != null ? payment : payment.withId(ids.incrementAndGet());
+        if (!shardFor(stored.payerId()).store(stored, false)) {
+            throw new IllegalStateException("Duplicate idempotency key: " + stored.idempotencyKey());
+        }
+        return stored;
+    }
+
+    @Override
+    public List<Payment> saveAll(List<Payment> payments) {
+        List<Payment> saved = new ArrayList<>(payments.size());
+        for (Payment payment : payments) {
+            saved.add(save(payment));
+        }
+        return saved;
+    }
+
+    public void put(Payment payment) {
+        ids.accumulateAndGet(payment.id(), Math::max);
+        shardFor(payment.payerId()).store(payment, true);
+    }
+
+    @Override
+    public Optional<Payment> findByIdempotencyKey(String idempotencyKey) {
+        while (true) {
+            long ref = keys.get(idempotencyKey);
+            if (ref == KeyIndex.MISSING) {
+                return Optional.empty();
+            }
+            Payment payment = shards[shardOf(ref)].read(rowOf(ref), idempotencyKey);
+            if (payment != null) {
+                return Optional.of(payment);
+            }
+            // The row moved during a compaction; the index already points to its new place
+        }
+    }
+
+    @Override
+    public Optional<Payment> findByTransactionId(String transactionId) {
+        // Lookups by transaction id are operational queries, a scan keeps the write path index-free
+        for (Shard shard : shards) {
+            Payment payment = shard.findByTransactionId(transactionId);
+            if (payment != null) {
+                return Optional.of(payment);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<Payment> findPayerPage(String payerId, PaymentCursor after, int limit) {
+        return shardFor(payerId).page(payerId, after, limit);
+    }
+
+    @Override
+    public List<Payment> findByPayerIdAndCreatedAtAfter(String payerId, LocalDateTime after) {
+        return shardFor(payerId).after(payerId, null, after);
+    }
+
+    @Override
+    public List<Payment> findByPayerIdAndPayeeIdAndCreatedAtAfter(String payerId, String payeeId, LocalDateTime after) {
+        return shardFor(payerId).after(payerId, payeeId, after);
+    }
+
+    @Override
+    public RiskStats findRiskStats(String payerId, String payeeId, LocalDateTime payerWindowStart, LocalDateTime payeeWindowStart) {
+        return shardFor(payerId).riskStats(payerId, payeeId, payerWindowStart, payeeWindowStart);
+    }
+
+    @Override
+    public Stream<Payment> streamCreatedAfter(LocalDateTime after) {
+        return Stream.of(shards).flatMap(shard -> shard.createdAfter(after).stream());
+    }
+
+    @Override
+    public Stream<String> streamIdempotencyKeys() {
+        return Stream.of(shards).flatMap(shard -> shard.idempotencyKeys().stream());
+    }
+
+    public void evictCreatedBefore(LocalDateTime cutoff) {
+        for (Shard shard : shards) {
+            shard.compact(PaymentColumns.toNanos(cutoff));
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Shard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    private Shard shardFor(String payerId) {
+        int hash = payerId.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & shardMask];
+    }
+
+    private static long ref(int shard, int row) {
+        return ((long) shard << 32) | row;
+    }
+
+    private static int shardOf(long ref) {
+        return (int) (ref >>> 32);
+    }
+
+    private static int rowOf(long ref) {
+        return (int) ref;
+    }
+
+    private static final class PayerIndex {
+
+        private final String payerId;
+        private final Postings all = new Postings();
+        private final Map<String, Postings> byPayee = new HashMap<>();
+        private final Map<String, String> payeeIds = new HashMap<>();
+
+        PayerIndex(String payerId) {
+            this.payerId = payerId;
+        }
+
+        String payeeId(String payeeId) {
+            return payeeIds.computeIfAbsent(payeeId, id -> id);
+        }
+
+        void add(String payeeId, int row, long createdAt) {
+            all.add(row, createdAt);
+            byPayee.computeIfAbsent(payeeId, id -> new Postings()).add(row, createdAt);
+        }
+    }
+
+    private final class Shard {
+
+        private final int index;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private PaymentColumns columns = new PaymentColumns(INITIAL_SHARD_CAPACITY);
+        private Map<String, PayerIndex> payers = new HashMap<>();
+
+        Shard(int index) {
+            this.index = index;
+        }
+
+        boolean store(Payment payment, boolean upsert) {
+            lock.writeLock().lock();
+            try {
+                long reserved = ref(index, columns.size);
+                long existing = keys.putIfAbsent(payment.idempotencyKey(), reserved);
+                if (existing == KeyIndex.MISSING) {
+                    try {
+                        insert(payment);
+                    } catch (RuntimeException e) {
+                        keys.remove(payment.idempotencyKey(), reserved);
+                        throw e;
+                    }
+                    return true;
+                }
+                if (shardOf(existing) == index && (upsert || columns.ids[rowOf(existing)] == payment.id())) {
+                    columns.update(rowOf(existing), payment);
+                    return true;
+                }
+                return false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        Payment read(int row, String idempotencyKey) {
+            lock.readLock().lock();
+            try {
+                if (row < columns.size && idempotencyKey.equals(columns.idempotencyKeys[row])) {
+                    return columns.toPayment(row);
+                }
+                return null;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<Payment> after(String payerId, String payeeId, LocalDateTime after) {
+            lock.readLock().lock();
+            try {
+                Postings postings = postings(payerId, payeeId);
+                if (postings == null) {
+                    return List.of();
+                }
+                int from = postings.firstAfter(PaymentColumns.toNanos(after));
+                List<Payment> payments = new ArrayList<>(postings.size() - from);
+                for (int i = from; i < postings.size(); i++) {
+                    payments.add(columns.toPayment(postings.row(i)));
+                }
+                return payments;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        Payment findByTransactionId(String transactionId) {
+            lock.readLock().lock();
+            try {
+                for (int row = 0; row < columns.size; row++) {
+                    if (transactionId.equals(columns.transactionIds[row])) {
+                        return columns.toPayment(row);
+                    }
+                }
+                return null;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<Payment> page(String payerId, PaymentCursor after, int limit) {
+            lock.readLock().lock();
+            try {
+                PayerIndex payer = payers.get(payerId);
+                if (payer == null) {
+                    return List.of();
+                }
+                Postings postings = payer.all;
+                long afterTime = after != null ? PaymentColumns.toNanos(after.createdAt()) : Long.MIN_VALUE;
+                int from = after != null ? postings.firstAfter(afterTime - 1) : 0;
+                List<Payment> page = new ArrayList<>(Math.min(limit, postings.size() - from));
+                for (int i = from; i < postings.size() && page.size() < limit; i++) {
+                    int row = postings.row(i);
+                    if (postings.time(i) == afterTime && columns.ids[row] <= after.id()) {
+                        continue;
+                    }
+                    page.add(columns.toPayment(row));
+                }
+                return page;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        RiskStats riskStats(String payerId, String payeeId, LocalDateTime payerWindowStart, LocalDateTime payeeWindowStart) {
+            lock.readLock().lock();
+            try {
+                PayerIndex payer = payers.get(payerId);
+                if (payer == null) {
+                    return RiskStats.EMPTY;
+                }
+
+                int approvedCount = 0;
+                long approvedAmount = 0;
+                int from = payer.all.firstAfter(PaymentColumns.toNanos(payerWindowStart));
+                for (int i = from; i < payer.all.size(); i++) {
+                    int row = payer.all.row(i);
+                    if (columns.isApproved(row)) {
+                        approvedCount++;
+                        approvedAmount += columns.storageMinor[row];
+                    }
+                }
+
+                int toSamePayee = 0;
+                LocalDateTime lastToSamePayee = null;
+                Postings pair = payer.byPayee.get(payeeId);
+                if (pair != null) {
+                    toSamePayee = pair.size() - pair.firstAfter(PaymentColumns.toNanos(payeeWindowStart));
+                    if (toSamePayee > 0) {
+                        lastToSamePayee = PaymentColumns.toLocalDateTime(pair.time(pair.size() - 1));
+                    }
+                }
+
+                return new RiskStats(approvedCount, approvedAmount, payer.all.size() - from, toSamePayee, lastToSamePayee);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<Payment> createdAfter(LocalDateTime after) {
+            long since = PaymentColumns.toNanos(after);
+            lock.readLock().lock();
+            try {
+                List<Payment> payments = new ArrayList<>();
+                for (int row = 0; row < columns.size; row++) {
+                    if (columns.createdAt[row] > since) {
+                        payments.add(columns.toPayment(row));
+                    }
+                }
+                return payments;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<String> idempotencyKeys() {
+            lock.readLock().lock();
+            try {
+                return List.of(Arrays.copyOf(columns.idempotencyKeys, columns.size));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void compact(long cutoff) {
+            lock.writeLock().lock();
+            try {
+                PaymentColumns old = columns;
+                int kept = 0;
+                for (int row = 0; row < old.size; row++) {
+                    if (old.createdAt[row] >= cutoff) {
+                        kept++;
+                    }
+                }
+                if (kept == old.size) {
+                    return;
+                }
+
+                columns = new PaymentColumns(Math.max(INITIAL_SHARD_CAPACITY, kept));
+                payers = new HashMap<>();
+                for (int row = 0; row < old.size; row++) {
+                    long oldRef = ref(index, row);
+                    if (old.createdAt[row] < cutoff) {
+                        keys.remove(old.idempotencyKeys[row], oldRef);
+                        continue;
+                    }
+                    Payment payment = old.toPayment(row);
+                    keys.put(payment.idempotencyKey(), ref(index, columns.size));
+                    insert(payment);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return columns.size;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void insert(Payment payment) {
+            PayerIndex payer = payers.computeIfAbsent(payment.payerId(), PayerIndex::new);
+            String payeeId = payer.payeeId(payment.payeeId());
+            int row = columns.append(payment, payer.payerId, payeeId);
+            payer.add(payeeId, row, columns.createdAt[row]);
+        }
+
+        private Postings postings(String payerId, String payeeId) {
+            PayerIndex payer = payers.get(payerId);
+            if (payer == null) {
+                return null;
+            }
+            return payeeId == null ? payer.all : payer.byPayee.get(payeeId);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.brava.infrastructure.memory;
+
+/**
+ * Idempotency key to packed row reference, striped by key hash. Each stripe is an
+ * open-addressing table with linear probing and backward-shift deletion.
+ */
+final class KeyIndex {
+
+    static final long MISSING = -1L;
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    KeyIndex(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        mask = size - 1;
+    }
+
+    long get(String key) {
+        int hash = spread(key.hashCode());
+        return stripes[hash & mask].get(key, hash);
+    }
+
+    long putIfAbsent(String key, long ref) {
+        int hash = spread(key.hashCode());
+        return stripes[hash & mask].putIfAbsent(key, hash, ref);
+    }
+
+    void put(String key, long ref) {
+        int hash = spread(key.hashCode());
+        stripes[hash & mask].put(key, hash, ref);
+    }
+
+    void remove(String key, long ref) {
+        int hash = spread(key.hashCode());
+        stripes[hash & mask].remove(key, hash, ref);
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        return hash ^ (hash >>> 13);
+    }
+
+    private static final class Stripe {
+
+        private String[] keys = new String[16];
+        private long[] refs = new long[16];
+        private int size;
+
+        synchronized long get(String key, int hash) {
+            int slot = find(key, hash);
+            return keys[slot] != null ? refs[slot] : MISSING;
+        }
+
+        synchronized long putIfAbsent(String key, int hash, long ref) {
+            int slot = find(key, hash);
+            if (keys[slot] != null) {
+                return refs[slot];
+            }
+            insert(slot, key, hash, ref);
+            return MISSING;
+        }
+
+        synchronized void put(String key, int hash, long ref) {
+            int slot = find(key, hash);
+            if (keys[slot] != null) {
+                refs[slot] = ref;
+            } else {
+                insert(slot, key, hash, ref);
+            }
+        }
+
+        synchronized void remove(String key, int hash, long ref) {
+            int slot = find(key, hash);
+            if (keys[slot] == null || refs[slot] != ref) {
+                return;
+            }
+            int tableMask = keys.length - 1;
+            int hole = slot;
+            int next = (hole + 1) & tableMask;
+            while (keys[next] != null) {
+                int home = home(keys[next], tableMask);
+                if (((next - home) & tableMask) >= ((next - hole) & tableMask)) {
+                    keys[hole] = keys[next];
+                    refs[hole] = refs[next];
+                    hole = next;
+                }
+                next = (next + 1) & tableMask;
+            }
+            keys[hole] = null;
+            size--;
+        }
+
+        private void insert(int slot, String key, int hash, long ref) {
+            keys[slot] = key;
+            refs[slot] = ref;
+            if (++size * 4 > keys.length * 3) {
+                resize();
+            }
+        }
+
+        private int find(String key, int hash) {
+            int tableMask = keys.length - 1;
+            int slot = (hash >>> 8) & tableMask;
+            while (keys[slot] != null && !keys[slot].equals(key)) {
+                slot = (slot + 1) & tableMask;
+            }
+            return slot;
+        }
+
+        private void resize() {
+            String[] oldKeys = keys;
+            long[] oldRefs = refs;
+            keys = new String[oldKeys.length * 2];
+            refs = new long[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int slot = find(oldKeys[i], spread(oldKeys[i].hashCode()));
+                    keys[slot] = oldKeys[i];
+                    refs[slot] = oldRefs[i];
+                }
+            }
+        }
+
+        private static int home(String key, int tableMask) {
+            return (spread(key.hashCode()) >>> 8) & tableMask;
+        }
+    }
+}
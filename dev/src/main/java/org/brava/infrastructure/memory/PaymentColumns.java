@@ -0,0 +1,128 @@
+package org.brava.infrastructure.memory;
+
+import org.brava.core.Money;
+import org.brava.core.Payment;
+import org.brava.core.PaymentStatus;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Payments of one shard stored column by column. Rows are append-only until the shard
+ * is compacted. Guarded by the owning shard's lock.
+ */
+final class PaymentColumns {
+
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    long[] ids;
+    long[] createdAt;
+    long[] updatedAt;
+    long[] amountMinor;
+    long[] storageMinor;
+    byte[] scales;
+    byte[] statuses;
+    String[] idempotencyKeys;
+    String[] payerIds;
+    String[] payeeIds;
+    String[] currencies;
+    String[] descriptions;
+    String[] transactionIds;
+    String[] messages;
+    int size;
+
+    PaymentColumns(int capacity) {
+        ids = new long[capacity];
+        createdAt = new long[capacity];
+        updatedAt = new long[capacity];
+        amountMinor = new long[capacity];
+        storageMinor = new long[capacity];
+        scales = new byte[capacity];
+        statuses = new byte[capacity];
+        idempotencyKeys = new String[capacity];
+        payerIds = new String[capacity];
+        payeeIds = new String[capacity];
+        currencies = new String[capacity];
+        descriptions = new String[capacity];
+        transactionIds = new String[capacity];
+        messages = new String[capacity];
+    }
+
+    int append(Payment payment, String payerId, String payeeId) {
+        if (size == ids.length) {
+            grow(Math.max(16, size * 2));
+        }
+        int row = size++;
+        payerIds[row] = payerId;
+        payeeIds[row] = payeeId;
+        idempotencyKeys[row] = payment.idempotencyKey();
+        createdAt[row] = toNanos(payment.createdAt());
+        update(row, payment);
+        return row;
+    }
+
+    void update(int row, Payment payment) {
+        ids[row] = payment.id();
+        updatedAt[row] = toNanos(payment.updatedAt());
+        amountMinor[row] = payment.amount().minorUnits();
+        storageMinor[row] = payment.amount().toMinor(Money.STORAGE_SCALE);
+        scales[row] = (byte) payment.amount().scale();
+        statuses[row] = (byte) payment.status().ordinal();
+        currencies[row] = payment.currency();
+        descriptions[row] = payment.description();
+        transactionIds[row] = payment.transactionId();
+        messages[row] = payment.message();
+    }
+
+    boolean isApproved(int row) {
+        return statuses[row] == PaymentStatus.APPROVED.ordinal();
+    }
+
+    Payment toPayment(int row) {
+        return new Payment(
+                ids[row],
+                idempotencyKeys[row],
+                payerIds[row],
+                payeeIds[row],
+                new Money(amountMinor[row], scales[row], currencies[row]),
+                currencies[row],
+                descriptions[row],
+                STATUSES[statuses[row]],
+                transactionIds[row],
+                messages[row],
+                toLocalDateTime(createdAt[row]),
+                toLocalDateTime(updatedAt[row])
+        );
+    }
+
+    static long toNanos(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * NANOS_PER_SECOND + time.getNano();
+    }
+
+    static LocalDateTime toLocalDateTime(long nanos) {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(nanos, NANOS_PER_SECOND),
+                (int) Math.floorMod(nanos, NANOS_PER_SECOND),
+                ZoneOffset.UTC
+        );
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        updatedAt = Arrays.copyOf(updatedAt, capacity);
+        amountMinor = Arrays.copyOf(amountMinor, capacity);
+        storageMinor = Arrays.copyOf(storageMinor, capacity);
+        scales = Arrays.copyOf(scales, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        idempotencyKeys = Arrays.copyOf(idempotencyKeys, capacity);
+        payerIds = Arrays.copyOf(payerIds, capacity);
+        payeeIds = Arrays.copyOf(payeeIds, capacity);
+        currencies = Arrays.copyOf(currencies, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        transactionIds = Arrays.copyOf(transactionIds, capacity);
+        messages = Arrays.copyOf(messages, capacity);
+    }
+}
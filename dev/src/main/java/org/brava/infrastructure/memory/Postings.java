@@ -0,0 +1,55 @@
+package org.brava.infrastructure.memory;
+
+import java.util.Arrays;
+
+/**
+ * Row numbers kept ordered by creation time, so a window is a binary search plus a
+ * contiguous scan. Guarded by the owning shard's lock.
+ */
+final class Postings {
+
+    private int[] rows = new int[4];
+    private long[] times = new long[4];
+    private int size;
+
+    void add(int row, long time) {
+        if (size == rows.length) {
+            rows = Arrays.copyOf(rows, size * 2);
+            times = Arrays.copyOf(times, size * 2);
+        }
+        int at = size == 0 || times[size - 1] <= time ? size : firstAfter(time);
+        if (at < size) {
+            System.arraycopy(rows, at, rows, at + 1, size - at);
+            System.arraycopy(times, at, times, at + 1, size - at);
+        }
+        rows[at] = row;
+        times[at] = time;
+        size++;
+    }
+
+    int firstAfter(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int row(int index) {
+        return rows[index];
+    }
+
+    long time(int index) {
+        return times[index];
+    }
+}
@@ -0,0 +1,216 @@
+package org.brava.infrastructure.memory;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.brava.core.Payment;
+import org.brava.core.RiskStats;
+import org.brava.infrastructure.persistence.PaymentRepositoryImpl;
+import org.brava.shell.PayerOwnershipChanged;
+import org.brava.shell.PaymentCursor;
+import org.brava.shell.PaymentRepository;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@ApplicationScoped
+@IfBuildProperty(name = "payment.repository.hot-tier.enabled", stringValue = "true")
+public class TieredPaymentRepository implements PaymentRepository {
+
+    private static final Logger LOG = Logger.getLogger(TieredPaymentRepository.class);
+
+    @Inject
+    PaymentRepositoryImpl database;
+
+    @Inject
+    TransactionSynchronizationRegistry transactions;
+
+    @ConfigProperty(name = "payment.repository.memory.shards", defaultValue = "64")
+    int shards;
+
+    @ConfigProperty(name = "payment.repository.hot-tier.retention", defaultValue = "31d")
+    Duration retention;
+
+    @ConfigProperty(name = "payment.repository.hot-tier.serve-reads", defaultValue = "false")
+    boolean serveReads;
+
+    @ConfigProperty(name = "payment.routing.enabled", defaultValue = "false")
+    boolean routing;
+
+    private InMemoryPaymentRepository hot;
+    private volatile LocalDateTime coveredSince;
+
+    @PostConstruct
+    void init() {
+        hot = new InMemoryPaymentRepository(shards);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!serveReads) {
+            LOG.info("Payment hot tier is not serving reads: risk and idempotency lookups go to the database");
+            return;
+        }
+        if (!routing) {
+            LOG.warn("Payment hot tier serves reads without payer routing: it only sees this instance's "
+                    + "payments, so with more than one replica risk windows undercount and duplicates are missed");
+        }
+        warm();
+    }
+
+    void onOwnershipChanged(@Observes PayerOwnershipChanged event) {
+        if (serveReads) {
+            warm();
+        }
+    }
+
+    @Transactional
+    public void warm() {
+        LocalDateTime since = LocalDateTime.now().minus(retention);
+        LOG.infof("Warming payment hot tier from payments created after %s", since);
+
+        long loaded = 0;
+        try (Stream<Payment> payments = database.streamCreatedAfter(since)) {
+            Iterator<Payment> iterator = payments.iterator();
+            while (iterator.hasNext()) {
+                hot.put(iterator.next());
+                loaded++;
+            }
+        }
+        coveredSince = since;
+
+        LOG.infof("Payment hot tier warmed - Payments: %d", loaded);
+    }
+
+    @Scheduled(every = "{payment.repository.hot-tier.eviction-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void evict() {
+        if (coveredSince == null) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        coveredSince = cutoff;
+        hot.evictCreatedBefore(cutoff);
+        LOG.debugf("Payment hot tier evicted before %s - Payments: %d", cutoff, hot.size());
+    }
+
+    @Override
+    public Payment save(Payment payment) {
+        Payment saved = database.save(payment);
+        promoteAfterCommit(List.of(saved));
+        return saved;
+    }
+
+    @Override
+    public List<Payment> saveAll(List<Payment> payments) {
+        List<Payment> saved = database.saveAll(payments);
+        promoteAfterCommit(saved);
+        return saved;
+    }
+
+    @Override
+    public Optional<Payment> findByIdempotencyKey(String idempotencyKey) {
+        if (!serveReads) {
+            return database.findByIdempotencyKey(idempotencyKey);
+        }
+        Optional<Payment> cached = hot.findByIdempotencyKey(idempotencyKey);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        Optional<Payment> stored = database.findByIdempotencyKey(idempotencyKey);
+        stored.filter(payment -> covers(payment.createdAt())).ifPresent(hot::put);
+        return stored;
+    }
+
+    @Override
+    public Optional<Payment> findByTransactionId(String transactionId) {
+        return database.findByTransactionId(transactionId);
+    }
+
+    @Override
+    public List<Payment> findPayerPage(String payerId, PaymentCursor after, int limit) {
+        return database.findPayerPage(payerId, after, limit);
+    }
+
+    @Override
+    public List<Payment> findByPayerIdAndCreatedAtAfter(String payerId, LocalDateTime after) {
+        return covers(after)
+                ? hot.findByPayerIdAndCreatedAtAfter(payerId, after)
+                : database.findByPayerIdAndCreatedAtAfter(payerId, after);
+    }
+
+    @Override
+    public List<Payment> findByPayerIdAndPayeeIdAndCreatedAtAfter(String payerId, String payeeId, LocalDateTime after) {
+        return covers(after)
+                ? hot.findByPayerIdAndPayeeIdAndCreatedAtAfter(payerId, payeeId, after)
+                : database.findByPayerIdAndPayeeIdAndCreatedAtAfter(payerId, payeeId, after);
+    }
+
+    @Override
+    public RiskStats findRiskStats(String payerId, String payeeId, LocalDateTime payerWindowStart, LocalDateTime payeeWindowStart) {
+        return covers(payerWindowStart) && covers(payeeWindowStart)
+                ? hot.findRiskStats(payerId, payeeId, payerWindowStart, payeeWindowStart)
+                : database.findRiskStats(payerId, payeeId, payerWindowStart, payeeWindowStart);
+    }
+
+    @Override
+    public RiskStats findRiskStats(String payerId, String payeeId, LocalDateTime payerWindowStart,
+                                   LocalDateTime payeeWindowStart, Duration timeout) {
+        return covers(payerWindowStart) && covers(payeeWindowStart)
+                ? hot.findRiskStats(payerId, payeeId, payerWindowStart, payeeWindowStart)
+                : database.findRiskStats(payerId, payeeId, payerWindowStart, payeeWindowStart, timeout);
+    }
+
+    @Override
+    public Stream<Payment> streamCreatedAfter(LocalDateTime after) {
+        return covers(after) ? hot.streamCreatedAfter(after) : database.streamCreatedAfter(after);
+    }
+
+    @Override
+    public Stream<String> streamIdempotencyKeys() {
+        return database.streamIdempotencyKeys();
+    }
+
+    /**
+     * Without {@code serve-reads} the hot tier is never warmed, so nothing is covered and every
+     * read goes to the database.
+     */
+    private boolean covers(LocalDateTime since) {
+        LocalDateTime covered = coveredSince;
+        return covered != null && !since.isBefore(covered);
+    }
+
+    private void promoteAfterCommit(List<Payment> payments) {
+        if (!serveReads) {
+            return;
+        }
+        if (transactions.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            payments.forEach(hot::put);
+            return;
+        }
+        transactions.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    payments.forEach(hot::put);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package org.brava.infrastructure.outbox;
+
+import io.quarkus.arc.DefaultBean;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.brava.shell.PaymentEvent;
+import org.brava.shell.PaymentEventSink;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends one JSON line per event. A batch is forced to disk before {@link #publish} returns,
+ * so the relay only deletes outbox rows that are already durable in the file.
+ */
+@ApplicationScoped
+@DefaultBean
+public class FilePaymentEventSink implements PaymentEventSink {
+
+    private static final Logger LOG = Logger.getLogger(FilePaymentEventSink.class);
+
+    @ConfigProperty(name = "payment.outbox.file.path", defaultValue = "outbox/payment-events.jsonl")
+    Path path;
+
+    @ConfigProperty(name = "payment.outbox.file.fsync", defaultValue = "true")
+    boolean fsync;
+
+    private FileChannel channel;
+
+    @PostConstruct
+    void init() {
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open payment event file " + path, e);
+        }
+        LOG.infof("Payment events sink - File: %s", path);
+    }
+
+    @PreDestroy
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOG.warnf(e, "Could not close payment event file %s", path);
+        }
+    }
+
+    @Override
+    public synchronized void publish(List<PaymentEvent> events) {
+        StringBuilder lines = new StringBuilder(events.size() * 256);
+        for (PaymentEvent event : events) {
+            appendJson(lines, event);
+            lines.append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write payment events to " + path, e);
+        }
+    }
+
+    static void appendJson(StringBuilder out, PaymentEvent event) {
+        out.append("{\"paymentId\":").append(event.paymentId());
+        field(out, "transactionId", event.transactionId());
+        field(out, "payerId", event.payerId());
+        field(out, "payeeId", event.payeeId());
+        out.append(",\"amount\":").append(event.amount().toPlainString());
+        field(out, "currency", event.currency());
+        field(out, "status", event.status().name());
+        field(out, "createdAt", event.createdAt().toString());
+        out.append('}');
+    }
+
+    private static void field(StringBuilder out, String name, String value) {
+        out.append(",\"").append(name).append("\":");
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,39 @@
+package org.brava.infrastructure.outbox;
+
+import io.quarkus.arc.properties.IfBuildProperty;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.brava.shell.PaymentEvent;
+import org.brava.shell.PaymentEventSink;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps published events in memory until {@link #drain} is called, for tests and local runs
+ * that want to inspect what the relay delivered.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "payment.outbox.sink", stringValue = "memory")
+public class InMemoryPaymentEventSink implements PaymentEventSink {
+
+    private final ConcurrentLinkedQueue<PaymentEvent> events = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void publish(List<PaymentEvent> batch) {
+        events.addAll(batch);
+    }
+
+    public List<PaymentEvent> drain() {
+        List<PaymentEvent> drained = new ArrayList<>();
+        PaymentEvent event;
+        while ((event = events.poll()) != null) {
+            drained.add(event);
+        }
+        return drained;
+    }
+
+    public int size() {
+        return events.size();
+    }
+}
@@ -0,0 +1,109 @@
+package org.brava.infrastructure.persistence;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.brava.core.Payment;
+import org.brava.core.PaymentStatus;
+import org.brava.shell.PaymentEvent;
+import org.brava.shell.PaymentOutbox;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outbox rows go through the Hibernate session's own connection, so they commit or roll back
+ * with the payments saved in the same transaction.
+ */
+@ApplicationScoped
+public class PaymentOutboxImpl implements PaymentOutbox {
+
+    private static final String INSERT = """
+            INSERT INTO payment_outbox (payment_id, transaction_id, payer_id, payee_id, amount, currency, status, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private static final String CLAIM = """
+            SELECT id, payment_id, transaction_id, payer_id, payee_id, amount, currency, status, created_at,
+                   CAST(EXTRACT(EPOCH FROM (LOCALTIMESTAMP - enqueued_at)) * 1000 AS BIGINT)
+            FROM payment_outbox
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED""";
+
+    private static final String DELETE = "DELETE FROM payment_outbox WHERE id = ANY (?)";
+
+    @ConfigProperty(name = "payment.outbox.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @Override
+    public void append(List<Payment> payments) {
+        if (!enabled || payments.isEmpty()) {
+            return;
+        }
+        session().doWork(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                for (Payment payment : payments) {
+                    insert.setLong(1, payment.id());
+                    insert.setString(2, payment.transactionId());
+                    insert.setString(3, payment.payerId());
+                    insert.setString(4, payment.payeeId());
+                    insert.setBigDecimal(5, payment.amount().toBigDecimal());
+                    insert.setString(6, payment.currency());
+                    insert.setString(7, payment.status().name());
+                    insert.setTimestamp(8, Timestamp.valueOf(payment.createdAt()));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    public List<Entry> claim(int limit) {
+        return session().doReturningWork(connection -> {
+            try (PreparedStatement claim = connection.prepareStatement(CLAIM)) {
+                claim.setInt(1, limit);
+                List<Entry> entries = new ArrayList<>(limit);
+                try (ResultSet rows = claim.executeQuery()) {
+                    while (rows.next()) {
+                        PaymentEvent event = new PaymentEvent(
+                                rows.getLong(2),
+                                rows.getString(3),
+                                rows.getString(4),
+                                rows.getString(5),
+                                rows.getBigDecimal(6),
+                                rows.getString(7),
+                                PaymentStatus.valueOf(rows.getString(8)),
+                                rows.getTimestamp(9).toLocalDateTime());
+                        entries.add(new Entry(rows.getLong(1), rows.getLong(10), event));
+                    }
+                }
+                return entries;
+            }
+        });
+    }
+
+    @Override
+    public void delete(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Long[] ids = new Long[entries.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = entries.get(i).id();
+        }
+        session().doWork(connection -> {
+            try (PreparedStatement delete = connection.prepareStatement(DELETE)) {
+                delete.setArray(1, connection.createArrayOf("bigint", ids));
+                delete.executeUpdate();
+            }
+        });
+    }
+
+    private static Session session() {
+        return PaymentEntity.getEntityManager().unwrap(Session.class);
+    }
+}
@@ -0,0 +1,77 @@
+package org.brava.infrastructure.persistence;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.arc.profile.UnlessBuildProfile;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps monthly partitions created ahead of time. Rows that still reach the DEFAULT partition
+ * are moved out by {@code ensure_payments_partitions}; whatever is left there afterwards is
+ * exposed as {@code payment.partitions.default_rows}, which should stay at zero.
+ */
+@ApplicationScoped
+@UnlessBuildProfile("memory")
+public class PaymentPartitionMaintenance {
+
+    private static final Logger LOG = Logger.getLogger(PaymentPartitionMaintenance.class);
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "payment.partitions.months-ahead", defaultValue = "3")
+    int monthsAhead;
+
+    private final AtomicLong defaultRows = new AtomicLong();
+    private Counter failures;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("payment.partitions.default_rows", defaultRows, AtomicLong::get)
+                .register(registry);
+        failures = Counter.builder("payment.partitions.maintenance.failures")
+                .register(registry);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        ensurePartitions();
+    }
+
+    @Scheduled(cron = "{payment.partitions.maintenance-cron}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void ensurePartitions() {
+        try {
+            Object partitions = QuarkusTransaction.requiringNew().call(() -> PaymentEntity.getEntityManager()
+                    .createNativeQuery("SELECT ensure_payments_partitions(:monthsAhead)")
+                    .setParameter("monthsAhead", monthsAhead)
+                    .getSingleResult());
+            LOG.infof("Payment partitions ensured - Months: %s", partitions);
+        } catch (RuntimeException e) {
+            failures.increment();
+            LOG.errorf(e, "Could not create payment partitions %d months ahead", monthsAhead);
+        }
+
+        try {
+            long rows = QuarkusTransaction.requiringNew().call(() -> ((Number) PaymentEntity.getEntityManager()
+                    .createNativeQuery("SELECT count(*) FROM payments_default")
+                    .getSingleResult()).longValue());
+            defaultRows.set(rows);
+            if (rows > 0) {
+                LOG.warnf("%d payments remain in payments_default after partition maintenance", rows);
+            }
+        } catch (RuntimeException e) {
+            failures.increment();
+            LOG.errorf(e, "Could not count rows in payments_default");
+        }
+    }
+}
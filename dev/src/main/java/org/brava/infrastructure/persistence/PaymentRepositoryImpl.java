@@ -1,16 +1,62 @@
 package org.brava.infrastructure.persistence;
 
+import io.quarkus.arc.DefaultBean;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.TypedQuery;
+import org.brava.core.Money;
 import org.brava.core.Payment;
+import org.brava.core.PaymentStatus;
+import org.brava.core.RiskStats;
+import org.brava.shell.PaymentCursor;
 import org.brava.shell.PaymentRepository;
+import org.hibernate.Session;
+import org.postgresql.jdbc.PgStatement;
 
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @ApplicationScoped
+@DefaultBean
 public class PaymentRepositoryImpl implements PaymentRepository {
 
+    // Parameters: payer window start x3, payee id, payee window start, payee id, payee window
+    // start, payer id, payer window start, payee window start
+    static final String RISK_STATS_QUERY = """
+            SELECT count(*) FILTER (WHERE status = 'APPROVED' AND created_at > ?),
+                   CAST(COALESCE(sum(amount) FILTER (WHERE status = 'APPROVED' AND created_at > ?), 0)
+                        * %d AS BIGINT),
+                   count(*) FILTER (WHERE created_at > ?),
+                   count(*) FILTER (WHERE payee_id = ? AND created_at > ?),
+                   max(created_at) FILTER (WHERE payee_id = ? AND created_at > ?)
+            FROM payments
+            WHERE payer_id = ?
+              AND created_at > LEAST(CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP))
+            """.formatted(Money.minorUnits(1, Money.STORAGE_SCALE));
+
+    private static final String PAYER_FIRST_PAGE_QUERY =
+            "from PaymentEntity p where p.payerId = :payerId order by p.createdAt, p.id";
+
+    private static final String PAYER_NEXT_PAGE_QUERY = """
+            from PaymentEntity p
+            where p.payerId = :payerId and (p.createdAt, p.id) > (:createdAt, :id)
+            order by p.createdAt, p.id""";
+
+    private static final String CREATED_AFTER_QUERY = """
+            select p.id, p.idempotencyKey, p.payerId, p.payeeId, p.amount, p.currency, p.description,
+                   p.status, p.transactionId, p.message, p.createdAt, p.updatedAt
+            from PaymentEntity p
+            where p.createdAt > :after""";
+
     @Override
     public Payment save(Payment payment) {
         PaymentEntity entity = toEntity(payment);
@@ -18,6 +64,19 @@ public class PaymentRepositoryImpl implements PaymentRepository {
         return toDomain(entity);
     }
 
+    @Override
+    public List<Payment> saveAll(List<Payment> payments) {
+        List<PaymentEntity> entities = new ArrayList<>(payments.size());
+        for (Payment payment : payments) {
+            entities.add(toEntity(payment));
+        }
+        PaymentEntity.persist(entities);
+        PaymentEntity.flush();
+        return entities.stream()
+                .map(this::toDomain)
+                .toList();
+    }
+
     @Override
     public Optional<Payment> findByIdempotencyKey(String idempotencyKey) {
         return PaymentEntity.find("idempotencyKey", idempotencyKey)
@@ -25,6 +84,36 @@ public class PaymentRepositoryImpl implements PaymentRepository {
                 .map(e -> toDomain((PaymentEntity) e));
     }
 
+    @Override
+    public Optional<Payment> findByTransactionId(String transactionId) {
+        return PaymentEntity.find("transactionId", transactionId)
+                .firstResultOptional()
+                .map(e -> toDomain((PaymentEntity) e));
+    }
+
+    @Override
+    public List<Payment> findPayerPage(String payerId, PaymentCursor after, int limit) {
+        TypedQuery<PaymentEntity> query;
+        if (after == null) {
+            query = PaymentEntity.getEntityManager()
+                    .createQuery(PAYER_FIRST_PAGE_QUERY, PaymentEntity.class)
+                    .setParameter("payerId", payerId);
+        } else {
+            query = PaymentEntity.getEntityManager()
+                    .createQuery(PAYER_NEXT_PAGE_QUERY, PaymentEntity.class)
+                    .setParameter("payerId", payerId)
+                    .setParameter("createdAt", after.createdAt())
+                    .setParameter("id", after.id());
+        }
+        try (Stream<PaymentEntity> page = query
+                .setMaxResults(limit)
+                .setHint("org.hibernate.fetchSize", limit)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream()) {
+            return page.map(this::toDomain).toList();
+        }
+    }
+
     @Override
     public List<Payment> findByPayerIdAndCreatedAtAfter(String payerId, LocalDateTime after) {
         return PaymentEntity.find("payerId = ?1 and createdAt > ?2", payerId, after)
@@ -41,6 +130,79 @@ public class PaymentRepositoryImpl implements PaymentRepository {
                 .toList();
     }
 
+    @Override
+    public RiskStats findRiskStats(String payerId, String payeeId, LocalDateTime payerWindowStart, LocalDateTime payeeWindowStart) {
+        return findRiskStats(payerId, payeeId, payerWindowStart, payeeWindowStart, null);
+    }
+
+    // Plain JDBC on the session's connection: JPA query timeouts have whole-second resolution,
+    // while the driver can cancel the statement after the exact remaining budget.
+    @Override
+    public RiskStats findRiskStats(String payerId, String payeeId, LocalDateTime payerWindowStart,
+                                   LocalDateTime payeeWindowStart, Duration timeout) {
+        Timestamp payerStart = Timestamp.valueOf(payerWindowStart);
+        Timestamp payeeStart = Timestamp.valueOf(payeeWindowStart);
+        return PaymentEntity.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement query = connection.prepareStatement(RISK_STATS_QUERY)) {
+                if (timeout != null) {
+                    applyTimeout(query, timeout);
+                }
+                query.setTimestamp(1, payerStart);
+                query.setTimestamp(2, payerStart);
+                query.setTimestamp(3, payerStart);
+                query.setString(4, payeeId);
+                query.setTimestamp(5, payeeStart);
+                query.setString(6, payeeId);
+                query.setTimestamp(7, payeeStart);
+                query.setString(8, payerId);
+                query.setTimestamp(9, payerStart);
+                query.setTimestamp(10, payeeStart);
+                try (ResultSet row = query.executeQuery()) {
+                    row.next();
+                    Timestamp lastToSamePayee = row.getTimestamp(5);
+                    return new RiskStats(
+                            row.getInt(1),
+                            row.getLong(2),
+                            row.getInt(3),
+                            row.getInt(4),
+                            lastToSamePayee != null ? lastToSamePayee.toLocalDateTime() : null
+                    );
+                }
+            }
+        });
+    }
+
+    // A column projection is not managed, so rebuilding from 30 days of history does not
+    // grow the persistence context; rows arrive from a server-side cursor in fetch-size chunks.
+    @Override
+    public Stream<Payment> streamCreatedAfter(LocalDateTime after) {
+        return PaymentEntity.getEntityManager()
+                .createQuery(CREATED_AFTER_QUERY, Object[].class)
+                .setParameter("after", after)
+                .setHint("org.hibernate.fetchSize", 10_000)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream()
+                .map(this::toDomain);
+    }
+
+    @Override
+    public Stream<String> streamIdempotencyKeys() {
+        return PaymentEntity.getEntityManager()
+                .createQuery("select p.idempotencyKey from PaymentEntity p", String.class)
+                .setHint("org.hibernate.fetchSize", 10_000)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream();
+    }
+
+    private static void applyTimeout(Statement statement, Duration timeout) throws SQLException {
+        long millis = Math.max(1, timeout.toMillis());
+        if (statement.isWrapperFor(PgStatement.class)) {
+            statement.unwrap(PgStatement.class).setQueryTimeoutMs(millis);
+        } else {
+            statement.setQueryTimeout((int) Math.max(1, (millis + 999) / 1000));
+        }
+    }
+
     private PaymentEntity toEntity(Payment domain) {
         PaymentEntity entity = new PaymentEntity();
         entity.id = domain.id();
@@ -48,7 +210,7 @@ public class PaymentRepositoryImpl implements PaymentRepository {
         entity.transactionId = domain.transactionId();
         entity.payerId = domain.payerId();
         entity.payeeId = domain.payeeId();
-        entity.amount = domain.amount();
+        entity.amount = domain.amount().toBigDecimal();
         entity.currency = domain.currency();
         entity.description = domain.description();
         entity.status = domain.status();
@@ -58,13 +220,31 @@ public class PaymentRepositoryImpl implements PaymentRepository {
         return entity;
     }
 
+    private Payment toDomain(Object[] row) {
+        String currency = (String) row[5];
+        return new Payment(
+                (Long) row[0],
+                (String) row[1],
+                (String) row[2],
+                (String) row[3],
+                Money.of((BigDecimal) row[4], currency),
+                currency,
+                (String) row[6],
+                (PaymentStatus) row[7],
+                (String) row[8],
+                (String) row[9],
+                (LocalDateTime) row[10],
+                (LocalDateTime) row[11]
+        );
+    }
+
     private Payment toDomain(PaymentEntity entity) {
         return new Payment(
                 entity.id,
                 entity.idempotencyKey,
                 entity.payerId,
                 entity.payeeId,
-                entity.amount,
+                Money.of(entity.amount, entity.currency),
                 entity.currency,
                 entity.description,
                 entity.status,
@@ -0,0 +1,26 @@
+package org.brava.infrastructure.routing;
+
+import org.brava.core.Hashing;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+final class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        for (String node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(Hashing.hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    String ownerOf(String key) {
+        Map.Entry<Long, String> owner = ring.ceilingEntry(Hashing.hash(key));
+        return (owner != null ? owner : ring.firstEntry()).getValue();
+    }
+}
@@ -0,0 +1,49 @@
+package org.brava.infrastructure.routing;
+
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.quarkus.grpc.GlobalInterceptor;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.net.SocketAddress;
+
+/**
+ * Marks calls forwarded by another routing member so they are processed here and not routed
+ * again. The header is only honoured from a member's host; from anyone else it is ignored and
+ * the call is routed like any client call, so clients cannot pick the instance that writes
+ * their payer.
+ */
+@ApplicationScoped
+@GlobalInterceptor
+public class ForwardedRequestInterceptor implements ServerInterceptor {
+
+    private static final Logger LOG = Logger.getLogger(ForwardedRequestInterceptor.class);
+
+    static final Metadata.Key<String> FORWARDED_BY = Metadata.Key.of("x-payment-forwarded-by", Metadata.ASCII_STRING_MARSHALLER);
+    static final Context.Key<String> FORWARDED_FROM = Context.key("payment-forwarded-from");
+
+    @Inject
+    PayerRouter router;
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        String forwardedBy = headers.get(FORWARDED_BY);
+        if (forwardedBy == null) {
+            return next.startCall(call, headers);
+        }
+        SocketAddress remote = call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+        if (!router.isMemberAddress(forwardedBy, remote)) {
+            LOG.debugf("Ignoring forwarded-by header from a non-member - ForwardedBy: %s, Remote: %s", forwardedBy, remote);
+            return next.startCall(call, headers);
+        }
+        return Contexts.interceptCall(Context.current().withValue(FORWARDED_FROM, forwardedBy), call, headers, next);
+    }
+}
@@ -0,0 +1,213 @@
+package org.brava.infrastructure.routing;
+
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Metadata;
+import io.grpc.stub.MetadataUtils;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import org.brava.infrastructure.grpc.MutinyPaymentServiceGrpc;
+import org.brava.shell.PayerOwnershipChanged;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maps each payer to the instance that owns it on a consistent-hash ring of the configured
+ * members, so per-payer in-memory state is only read and written on that instance.
+ */
+@ApplicationScoped
+public class PayerRouter {
+
+    private static final Logger LOG = Logger.getLogger(PayerRouter.class);
+
+    @Inject
+    Event<PayerOwnershipChanged> ownershipChanged;
+
+    @ConfigProperty(name = "payment.routing.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "payment.routing.node")
+    Optional<String> node;
+
+    @ConfigProperty(name = "payment.routing.members")
+    Optional<List<String>> members;
+
+    @ConfigProperty(name = "payment.routing.members-file")
+    Optional<Path> membersFile;
+
+    @ConfigProperty(name = "payment.routing.virtual-nodes", defaultValue = "128")
+    int virtualNodes;
+
+    private volatile Membership membership;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        if (node.isEmpty()) {
+            throw new IllegalStateException("payment.routing.node is required when payment.routing.enabled=true");
+        }
+        apply(loadMembers());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        Membership current = membership;
+        if (current != null) {
+            current.peers.values().forEach(Peer::close);
+        }
+    }
+
+    @Scheduled(every = "{payment.routing.refresh-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void refresh() {
+        if (!enabled || membersFile.isEmpty()) {
+            return;
+        }
+        Map<String, String> loaded = loadMembers();
+        if (!loaded.equals(membership.targets)) {
+            apply(loaded);
+            ownershipChanged.fire(new PayerOwnershipChanged(loaded.keySet()));
+        }
+    }
+
+    public Optional<MutinyPaymentServiceGrpc.MutinyPaymentServiceStub> ownerOf(String payerId) {
+        if (!enabled || ForwardedRequestInterceptor.FORWARDED_FROM.get() != null) {
+            return Optional.empty();
+        }
+        Membership current = membership;
+        Peer owner = current.peers.get(current.ring.ownerOf(payerId));
+        return owner != null ? Optional.of(owner.stub) : Optional.empty();
+    }
+
+    /**
+     * Whether {@code remote} is an address of routing member {@code node}'s host. Authenticates
+     * hosts, not processes: anything running on a member's host passes, so untrusted clients
+     * must not share hosts with the instances.
+     */
+    public boolean isMemberAddress(String node, SocketAddress remote) {
+        if (!enabled || node.equals(this.node.get()) || !(remote instanceof InetSocketAddress address)) {
+            return false;
+        }
+        String target = membership.targets.get(node);
+        if (target == null) {
+            return false;
+        }
+        try {
+            // Resolved per call through the JVM's DNS cache, so members that move are followed
+            for (InetAddress member : InetAddress.getAllByName(hostOf(target))) {
+                if (member.equals(address.getAddress())) {
+                    return true;
+                }
+            }
+        } catch (UnknownHostException e) {
+            LOG.debugf("Could not resolve routing member %s at %s", node, target);
+        }
+        return false;
+    }
+
+    static String hostOf(String target) {
+        int port = target.lastIndexOf(':');
+        String host = port > 0 && !target.endsWith("]") ? target.substring(0, port) : target;
+        return host.startsWith("[") && host.endsWith("]") ? host.substring(1, host.length() - 1) : host;
+    }
+
+    private synchronized void apply(Map<String, String> targets) {
+        if (targets.isEmpty()) {
+            throw new IllegalStateException("Payer routing has no members");
+        }
+        if (!targets.containsKey(node.get())) {
+            LOG.warnf("Node %s is not a routing member, every payer will be forwarded", node.get());
+        }
+
+        Map<String, Peer> previous = membership != null ? membership.peers : Map.of();
+        Map<String, Peer> peers = new HashMap<>();
+        targets.forEach((id, target) -> {
+            if (id.equals(node.get())) {
+                return;
+            }
+            Peer existing = previous.get(id);
+            peers.put(id, existing != null && existing.target.equals(target) ? existing : new Peer(target, node.get()));
+        });
+        membership = new Membership(targets, new ConsistentHashRing(targets.keySet(), virtualNodes), peers);
+
+        previous.forEach((id, peer) -> {
+            if (peers.get(id) != peer) {
+                peer.close();
+            }
+        });
+        LOG.infof("Payer routing membership - Node: %s, Members: %s", node.get(), targets);
+    }
+
+    private Map<String, String> loadMembers() {
+        List<String> entries;
+        if (membersFile.isPresent()) {
+            try {
+                entries = Files.readAllLines(membersFile.get());
+            } catch (IOException e) {
+                if (membership != null) {
+                    LOG.warnf(e, "Could not read routing members from %s, keeping current membership", membersFile.get());
+                    return membership.targets;
+                }
+                throw new IllegalStateException("Could not read routing members from " + membersFile.get(), e);
+            }
+        } else {
+            entries = members.orElse(List.of());
+        }
+
+        Map<String, String> targets = new LinkedHashMap<>();
+        for (String entry : entries) {
+            String member = entry.strip();
+            if (member.isEmpty() || member.startsWith("#")) {
+                continue;
+            }
+            int separator = member.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Routing member must be <node>=<host>:<port>: " + member);
+            }
+            targets.put(member.substring(0, separator).strip(), member.substring(separator + 1).strip());
+        }
+        return targets;
+    }
+
+    private record Membership(Map<String, String> targets, ConsistentHashRing ring, Map<String, Peer> peers) {
+    }
+
+    private static final class Peer {
+
+        private final String target;
+        private final ManagedChannel channel;
+        private final MutinyPaymentServiceGrpc.MutinyPaymentServiceStub stub;
+
+        Peer(String target, String self) {
+            Metadata headers = new Metadata();
+            headers.put(ForwardedRequestInterceptor.FORWARDED_BY, self);
+            this.target = target;
+            this.channel = ManagedChannelBuilder.forTarget(target).usePlaintext().build();
+            this.stub = MutinyPaymentServiceGrpc.newMutinyStub(
+                    ClientInterceptors.intercept(channel, MetadataUtils.newAttachHeadersInterceptor(headers)));
+        }
+
+        void close() {
+            channel.shutdown();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.brava.shell;
+
+import org.brava.core.Payment;
+
+public record AuditEvent(
+        Payment payment,
+        int riskScore,
+        long idempotencyLookupNanos,
+        long buildContextNanos,
+        long policiesNanos,
+        long saveNanos
+) {
+}
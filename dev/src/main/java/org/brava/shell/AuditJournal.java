@@ -0,0 +1,5 @@
+package org.brava.shell;
+
+public interface AuditJournal {
+    void record(AuditEvent event);
+}
@@ -0,0 +1,88 @@
+package org.brava.shell;
+
+import org.brava.core.Money;
+import org.brava.core.Payment;
+import org.brava.core.PaymentStatus;
+import org.brava.core.RiskStats;
+import org.brava.core.VelocityStats;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Payments decided earlier in the same batch. They are only saved with the batch, so neither
+ * the risk query nor the velocity sketches (fed after commit) see them yet; later payments by
+ * the same payer add them on top.
+ */
+final class BatchOverlay {
+
+    private final Map<String, PayerDelta> payers = new HashMap<>();
+
+    void add(Payment payment) {
+        PayerDelta payer = payers.computeIfAbsent(payment.payerId(), id -> new PayerDelta());
+        payer.payments++;
+        if (payment.status() == PaymentStatus.APPROVED) {
+            payer.approvedPayments++;
+            payer.approvedAmountMinor += payment.amount().toMinor(Money.STORAGE_SCALE);
+        }
+        PairDelta pair = payer.pairs.computeIfAbsent(payment.payeeId(), id -> new PairDelta());
+        pair.payments++;
+        if (pair.lastCreatedAt == null || payment.createdAt().isAfter(pair.lastCreatedAt)) {
+            pair.lastCreatedAt = payment.createdAt();
+        }
+    }
+
+    RiskStats applyTo(RiskStats stats, Payment payment) {
+        PayerDelta payer = payers.get(payment.payerId());
+        if (payer == null) {
+            return stats;
+        }
+        PairDelta pair = payer.pairs.get(payment.payeeId());
+        int toSamePayee = stats.paymentsToSamePayeeLast7Days();
+        LocalDateTime lastToSamePayee = stats.lastPaymentToSamePayee();
+        if (pair != null) {
+            toSamePayee += pair.payments;
+            if (lastToSamePayee == null || pair.lastCreatedAt.isAfter(lastToSamePayee)) {
+                lastToSamePayee = pair.lastCreatedAt;
+            }
+        }
+        return new RiskStats(
+                stats.approvedPaymentsLast30Days() + payer.approvedPayments,
+                stats.approvedAmountLast30DaysMinor() + payer.approvedAmountMinor,
+                stats.paymentsLast30Days() + payer.payments,
+                toSamePayee,
+                lastToSamePayee
+        );
+    }
+
+    /**
+     * Every payee of the payer in this batch counts as new, as the sketch cannot say which it
+     * has already seen: like the sketch, this errs towards overcounting.
+     */
+    VelocityStats applyTo(VelocityStats velocity, Payment payment) {
+        PayerDelta payer = payers.get(payment.payerId());
+        if (payer == null) {
+            return velocity;
+        }
+        PairDelta pair = payer.pairs.get(payment.payeeId());
+        return new VelocityStats(
+                velocity.distinctPayees() + payer.pairs.size(),
+                velocity.paymentsToSamePayee() + (pair != null ? pair.payments : 0)
+        );
+    }
+
+    private static final class PayerDelta {
+
+        private int payments;
+        private int approvedPayments;
+        private long approvedAmountMinor;
+        private final Map<String, PairDelta> pairs = new HashMap<>();
+    }
+
+    private static final class PairDelta {
+
+        private int payments;
+        private LocalDateTime lastCreatedAt;
+    }
+}
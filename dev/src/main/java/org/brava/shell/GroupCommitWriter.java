@@ -0,0 +1,283 @@
+package org.brava.shell;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.brava.core.Payment;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Persists decided payments in batches: handler threads enqueue and wait, writer threads
+ * save up to {@code max-batch-size} payments, with their outbox events, per transaction and
+ * complete each caller only after that transaction commits. A caller waits at most until its
+ * deadline, or {@code payment.processing.latency-budget}: a payment no writer has taken by then
+ * is withdrawn and never saved, while one already in an unfinished transaction is reported with
+ * {@link PaymentOutcomeUnknownException}, whose outcome completes when that transaction does.
+ */
+@ApplicationScoped
+public class GroupCommitWriter {
+
+    private static final Logger LOG = Logger.getLogger(GroupCommitWriter.class);
+
+    @Inject
+    PaymentRepository repository;
+
+    @Inject
+    PaymentOutbox outbox;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "payment.persistence.group-commit.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "payment.persistence.group-commit.writers", defaultValue = "2")
+    int writers;
+
+    @ConfigProperty(name = "payment.persistence.group-commit.max-batch-size", defaultValue = "100")
+    int maxBatchSize;
+
+    @ConfigProperty(name = "payment.persistence.group-commit.max-linger", defaultValue = "2ms")
+    Duration maxLinger;
+
+    @ConfigProperty(name = "payment.persistence.group-commit.queue-capacity", defaultValue = "10000")
+    int queueCapacity;
+
+    @ConfigProperty(name = "payment.processing.latency-budget", defaultValue = "2s")
+    Duration latencyBudget;
+
+    private BlockingQueue<Pending> queue;
+    private int transactionTimeoutSeconds;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    private DistributionSummary batchSizes;
+    private Timer commitLatency;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        transactionTimeoutSeconds = (int) Math.max(1, (latencyBudget.toMillis() + 999) / 1000);
+        batchSizes = DistributionSummary.builder("payment.group_commit.batch_size")
+                .serviceLevelObjectives(1, 2, 5, 10, 25, 50, 100, 250, 500)
+                .register(registry);
+        commitLatency = Timer.builder("payment.group_commit.commit.duration")
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder("payment.group_commit.queue_depth", queue, BlockingQueue::size)
+                .register(registry);
+
+        running = true;
+        for (int i = 0; i < writers; i++) {
+            threads.add(Thread.ofPlatform().name("group-commit-" + i).daemon().start(this::run));
+        }
+        LOG.infof("Group commit enabled - Writers: %d, Max batch size: %d, Max linger: %s",
+                writers, maxBatchSize, maxLinger);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        if (queue != null) {
+            List<Pending> abandoned = new ArrayList<>();
+            queue.drainTo(abandoned);
+            for (Pending pending : abandoned) {
+                pending.committed.completeExceptionally(new RejectedExecutionException("Group commit writer stopped"));
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Payment write(Payment payment) {
+        return write(payment, RequestDeadline.NONE);
+    }
+
+    public Payment write(Payment payment, RequestDeadline deadline) {
+        Pending pending = new Pending(payment);
+        if (!running || !queue.offer(pending)) {
+            throw new RejectedExecutionException("Group commit queue is full");
+        }
+        long waitNanos = (deadline.isBounded() ? deadline.remaining() : latencyBudget).toNanos();
+        long giveUpAt = System.nanoTime() + waitNanos;
+        try {
+            return pending.committed.get(waitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (pending.withdraw()) {
+                throw new LatencyBudgetExceededException(
+                        "Payment " + payment.idempotencyKey() + " was not taken by a group commit writer in time");
+            }
+            return awaitTaken(pending, giveUpAt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (pending.withdraw()) {
+                throw new RejectedExecutionException("Interrupted while waiting for group commit", e);
+            }
+            return awaitTaken(pending, giveUpAt);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    // Already in a writer's transaction, which may hang (a stuck connection): its result is
+    // returned if it arrives within the caller's budget, otherwise the outcome is unknown
+    private static Payment awaitTaken(Pending pending, long giveUpAtNanos) {
+        try {
+            return pending.committed.get(Math.max(0, giveUpAtNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            // Reported below
+        }
+        throw new PaymentOutcomeUnknownException("Payment " + pending.payment.idempotencyKey()
+                + " is in a group commit that had not finished within the latency budget", pending.committed);
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // Payments taken from the queue before the interrupt are not drained by shutdown
+                fail(batch, new RejectedExecutionException("Group commit writer stopped"));
+                break;
+            }
+            try {
+                flush(batch);
+            } catch (Throwable e) {
+                fail(batch, e);
+                if (e instanceof Error error) {
+                    throw error;
+                }
+                LOG.errorf(e, "Group commit writer failed a batch of %d payments", batch.size());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private static void fail(List<Pending> batch, Throwable cause) {
+        for (Pending pending : batch) {
+            pending.committed.completeExceptionally(cause);
+        }
+    }
+
+    private void collect(List<Pending> batch) throws InterruptedException {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + maxLinger.toNanos();
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<Pending> collected) {
+        List<Pending> batch = new ArrayList<>(collected.size());
+        List<Payment> payments = new ArrayList<>(collected.size());
+        for (Pending pending : collected) {
+            if (pending.take()) {
+                batch.add(pending);
+                payments.add(pending.payment);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Payment> saved;
+        long start = System.nanoTime();
+        try {
+            saved = QuarkusTransaction.requiringNew().timeout(transactionTimeoutSeconds).call(() -> {
+                List<Payment> written = repository.saveAll(payments);
+                outbox.append(written);
+                return written;
+            });
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "Group commit of %d payments failed, retrying individually", batch.size());
+            flushIndividually(batch);
+            return;
+        }
+        commitLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizes.record(batch.size());
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).committed.complete(saved.get(i));
+        }
+    }
+
+    private void flushIndividually(List<Pending> batch) {
+        for (Pending pending : batch) {
+            try {
+                pending.committed.complete(QuarkusTransaction.requiringNew().timeout(transactionTimeoutSeconds).call(() -> {
+                    Payment written = repository.save(pending.payment);
+                    outbox.append(List.of(written));
+                    return written;
+                }));
+            } catch (RuntimeException e) {
+                pending.committed.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * {@code taken} is claimed once, either by the writer that saves the payment or by the
+     * caller giving up on it, so a withdrawn payment is never written.
+     */
+    private record Pending(Payment payment, CompletableFuture<Payment> committed, AtomicBoolean taken) {
+
+        Pending(Payment payment) {
+            this(payment, new CompletableFuture<>(), new AtomicBoolean());
+        }
+
+        boolean take() {
+            return taken.compareAndSet(false, true);
+        }
+
+        boolean withdraw() {
+            return taken.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.brava.shell;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.brava.core.Payment;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@ApplicationScoped
+public class IdempotencyCache {
+
+    private static final Logger LOG = Logger.getLogger(IdempotencyCache.class);
+
+    @Inject
+    PaymentRepository repository;
+
+    @Inject
+    TransactionSynchronizationRegistry transactions;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "payment.idempotency.filter.enabled", defaultValue = "true")
+    boolean filterEnabled;
+
+    @ConfigProperty(name = "payment.idempotency.filter.expected-keys", defaultValue = "10000000")
+    long expectedKeys;
+
+    @ConfigProperty(name = "payment.idempotency.filter.false-positive-rate", defaultValue = "0.01")
+    double falsePositiveRate;
+
+    @ConfigProperty(name = "payment.idempotency.cache.max-size", defaultValue = "100000")
+    int cacheMaxSize;
+
+    @ConfigProperty(name = "payment.idempotency.cache.ttl", defaultValue = "10m")
+    Duration cacheTtl;
+
+    private BloomFilter filter;
+    private ExpiringCache<String, Payment> recent;
+    private volatile boolean filterReady;
+
+    private Counter cacheHits;
+    private Counter filterNegatives;
+    private Counter databaseHits;
+    private Counter falsePositives;
+    private Counter databaseMisses;
+
+    @PostConstruct
+    void init() {
+        filter = new BloomFilter(expectedKeys, falsePositiveRate);
+        recent = new ExpiringCache<>(cacheMaxSize, cacheTtl.toNanos());
+
+        cacheHits = lookups("cache_hit");
+        filterNegatives = lookups("filter_negative");
+        databaseHits = lookups("db_hit");
+        falsePositives = lookups("false_positive");
+        databaseMisses = lookups("db_miss");
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (filterEnabled) {
+            warmFilter();
+        }
+    }
+
+    public Optional<Payment> find(String idempotencyKey) {
+        Payment cached = recent.get(idempotencyKey);
+        if (cached != null) {
+            count(cacheHits);
+            return Optional.of(cached);
+        }
+
+        // The filter only learns keys written or looked up on this instance. A key first processed
+        // on another replica is reported as new here, and the insert then fails on the unique key:
+        // callers must answer that failure with findInRepository, as PaymentGrpcService does
+        boolean filtered = filterEnabled && filterReady;
+        if (filtered && !filter.mightContain(idempotencyKey)) {
+            count(filterNegatives);
+            return Optional.empty();
+        }
+
+        Optional<Payment> existing = repository.findByIdempotencyKey(idempotencyKey);
+        if (existing.isPresent()) {
+            count(databaseHits);
+            recent.put(idempotencyKey, existing.get());
+        } else if (filtered) {
+            count(falsePositives);
+        } else {
+            count(databaseMisses);
+        }
+        return existing;
+    }
+
+    public Optional<Payment> findInRepository(String idempotencyKey) {
+        Optional<Payment> existing = repository.findByIdempotencyKey(idempotencyKey);
+        existing.ifPresent(payment -> {
+            filter.put(idempotencyKey);
+            recent.put(idempotencyKey, payment);
+        });
+        return existing;
+    }
+
+    public void remember(Payment payment) {
+        if (PaymentWarmup.isActive()) {
+            // Rolled back, and would only add false positives
+            return;
+        }
+        filter.put(payment.idempotencyKey());
+
+        if (transactions.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            recent.put(payment.idempotencyKey(), payment);
+            return;
+        }
+        transactions.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    recent.put(payment.idempotencyKey(), payment);
+                }
+            }
+        });
+    }
+
+    @Transactional
+    public void warmFilter() {
+        LOG.infof("Warming idempotency filter - Size: %d bytes", filter.sizeInBytes());
+
+        long loaded = 0;
+        try (Stream<String> keys = repository.streamIdempotencyKeys()) {
+            Iterator<String> iterator = keys.iterator();
+            while (iterator.hasNext()) {
+                filter.put(iterator.next());
+                loaded++;
+            }
+        }
+        filterReady = true;
+
+        LOG.infof("Idempotency filter warmed - Keys: %d", loaded);
+    }
+
+    private Counter lookups(String result) {
+        return Counter.builder("payment.idempotency.lookups")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static void count(Counter lookups) {
+        if (!PaymentWarmup.isActive()) {
+            lookups.increment();
+        }
+    }
+}
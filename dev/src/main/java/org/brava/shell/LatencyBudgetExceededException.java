@@ -0,0 +1,17 @@
+package org.brava.shell;
+
+import java.io.Serial;
+
+public class LatencyBudgetExceededException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public LatencyBudgetExceededException(String message) {
+        super(message);
+    }
+
+    public LatencyBudgetExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
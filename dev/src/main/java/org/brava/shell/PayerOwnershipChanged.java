@@ -0,0 +1,6 @@
+package org.brava.shell;
+
+import java.util.Set;
+
+public record PayerOwnershipChanged(Set<String> members) {
+}
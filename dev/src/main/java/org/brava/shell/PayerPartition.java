@@ -0,0 +1,59 @@
+package org.brava.shell;
+
+import org.jboss.logging.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Single-threaded executor owning a subset of payers: every task for those payers runs on
+ * the same thread, in submission order.
+ */
+final class PayerPartition implements Executor {
+
+    private static final Logger LOG = Logger.getLogger(PayerPartition.class);
+
+    private final int index;
+    private final BlockingQueue<Runnable> queue;
+    private final Thread thread;
+
+    PayerPartition(int index, int capacity) {
+        this.index = index;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.thread = Thread.ofPlatform().name("payment-partition-" + index).daemon().start(this::run);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!queue.offer(task)) {
+            throw new RejectedExecutionException("Payment partition " + index + " is full");
+        }
+    }
+
+    int depth() {
+        return queue.size();
+    }
+
+    void shutdown() {
+        thread.interrupt();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Runnable task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable e) {
+                // The thread is the only one serving its payers, so nothing may end it but shutdown
+                LOG.errorf(e, "Task failed on payment partition %d", index);
+            }
+        }
+    }
+}
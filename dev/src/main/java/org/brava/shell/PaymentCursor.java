@@ -0,0 +1,15 @@
+package org.brava.shell;
+
+import org.brava.core.Payment;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position in a payer's history, ordered by (created_at, id). A page starts strictly after it.
+ */
+public record PaymentCursor(LocalDateTime createdAt, long id) {
+
+    public static PaymentCursor of(Payment payment) {
+        return new PaymentCursor(payment.createdAt(), payment.id());
+    }
+}
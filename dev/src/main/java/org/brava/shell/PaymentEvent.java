@@ -0,0 +1,32 @@
+package org.brava.shell;
+
+import org.brava.core.Payment;
+import org.brava.core.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record PaymentEvent(
+        long paymentId,
+        String transactionId,
+        String payerId,
+        String payeeId,
+        BigDecimal amount,
+        String currency,
+        PaymentStatus status,
+        LocalDateTime createdAt
+) {
+
+    public static PaymentEvent of(Payment payment) {
+        return new PaymentEvent(
+                payment.id(),
+                payment.transactionId(),
+                payment.payerId(),
+                payment.payeeId(),
+                payment.amount().toBigDecimal(),
+                payment.currency(),
+                payment.status(),
+                payment.createdAt()
+        );
+    }
+}
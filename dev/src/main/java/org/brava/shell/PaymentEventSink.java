@@ -0,0 +1,7 @@
+package org.brava.shell;
+
+import java.util.List;
+
+public interface PaymentEventSink {
+    void publish(List<PaymentEvent> events);
+}
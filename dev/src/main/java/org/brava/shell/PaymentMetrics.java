@@ -0,0 +1,161 @@
+package org.brava.shell;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.brava.core.PaymentDecision;
+import org.brava.core.RiskContext;
+import org.brava.core.policies.CompiledPolicy;
+import org.brava.core.policies.PaymentPolicy;
+import org.brava.core.policies.PolicyObserver;
+import org.brava.core.policies.ReloadablePolicy;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@ApplicationScoped
+public class PaymentMetrics {
+
+    public enum Stage {
+        IDEMPOTENCY_LOOKUP("idempotency_lookup"),
+        BUILD_CONTEXT("build_context"),
+        POLICIES("policies"),
+        SAVE("save");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    Tracer tracer;
+
+    @ConfigProperty(name = "payment.metrics.slo", defaultValue = "1ms,5ms,10ms,25ms,50ms,100ms,250ms,500ms,1s")
+    List<Duration> slo;
+
+    @ConfigProperty(name = "payment.metrics.policy-sample-rate", defaultValue = "1.0")
+    double policySampleRate;
+
+    @ConfigProperty(name = "payment.metrics.stage-spans", defaultValue = "false")
+    boolean stageSpans;
+
+    private final Timer[] stageTimers = new Timer[Stage.values().length];
+    // Keyed by name, not instance: every risk rules reload builds new policy instances
+    private final Map<String, Timer> policyTimers = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, Counter>> declines = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final PolicyObserver observer = new PolicyObserver() {
+        @Override
+        public boolean isTimed() {
+            return policySampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < policySampleRate;
+        }
+
+        @Override
+        public void onEvaluated(PaymentPolicy policy, long nanos) {
+            if (PaymentWarmup.isActive()) {
+                return;
+            }
+            policyTimers.computeIfAbsent(policy.getName(), name -> timer("payment.policy.duration", "policy", name))
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void onDeclined(PaymentPolicy policy, PaymentDecision.Declined decision) {
+            if (PaymentWarmup.isActive()) {
+                return;
+            }
+            String name = policy.getName();
+            declines.computeIfAbsent(name, n -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(decision.riskScore(), score -> Counter.builder("payment.policy.declines")
+                            .tag("policy", name)
+                            .tag("risk_score", String.valueOf(score))
+                            .register(registry))
+                    .increment();
+        }
+    };
+
+    @PostConstruct
+    void init() {
+        for (Stage stage : Stage.values()) {
+            stageTimers[stage.ordinal()] = timer("payment.stage.duration", "stage", stage.tag);
+        }
+        Gauge.builder("payment.requests.in_flight", inFlight, AtomicInteger::get)
+                .register(registry);
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public long stop(Stage stage, long start) {
+        long elapsed = System.nanoTime() - start;
+        if (PaymentWarmup.isActive()) {
+            return elapsed;
+        }
+        stageTimers[stage.ordinal()].record(elapsed, TimeUnit.NANOSECONDS);
+        if (stageSpans) {
+            span("payment." + stage.tag, elapsed);
+        }
+        return elapsed;
+    }
+
+    public PaymentDecision evaluate(PaymentPolicy policy, RiskContext context) {
+        if (policy instanceof ReloadablePolicy reloadable) {
+            return reloadable.current().evaluate(context, observer);
+        }
+        if (policy instanceof CompiledPolicy compiled) {
+            return compiled.evaluate(context, observer);
+        }
+        PaymentDecision decision = policy.evaluate(context);
+        if (decision instanceof PaymentDecision.Declined declined) {
+            observer.onDeclined(policy, declined);
+        }
+        return decision;
+    }
+
+    public void requestStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    public void requestFinished() {
+        inFlight.decrementAndGet();
+    }
+
+    private Timer timer(String name, String tag, String value) {
+        return Timer.builder(name)
+                .tag(tag, value)
+                .serviceLevelObjectives(slo.toArray(Duration[]::new))
+                .minimumExpectedValue(Duration.ofNanos(1_000))
+                .maximumExpectedValue(slo.get(slo.size() - 1).multipliedBy(10))
+                .register(registry);
+    }
+
+    private void span(String name, long elapsedNanos) {
+        // Recorded after the fact as a child of the current request span, so the stage shows up in the trace
+        Instant now = Instant.now();
+        long endEpochNanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        Span span = tracer.spanBuilder(name)
+                .setStartTimestamp(endEpochNanos - elapsedNanos, TimeUnit.NANOSECONDS)
+                .startSpan();
+        span.end(endEpochNanos, TimeUnit.NANOSECONDS);
+    }
+}
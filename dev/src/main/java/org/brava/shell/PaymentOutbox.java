@@ -0,0 +1,18 @@
+package org.brava.shell;
+
+import org.brava.core.Payment;
+
+import java.util.List;
+
+public interface PaymentOutbox {
+    void append(List<Payment> payments);
+    List<Entry> claim(int limit);
+    void delete(List<Entry> entries);
+
+    /**
+     * An event locked by {@link #claim} for the current transaction, with its age in the outbox
+     * when it was claimed.
+     */
+    record Entry(long id, long ageMillis, PaymentEvent event) {
+    }
+}
@@ -0,0 +1,157 @@
+package org.brava.shell;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the payment outbox into the {@link PaymentEventSink}. Each batch is claimed with
+ * SKIP LOCKED, published and deleted in one transaction, so relay threads on any number of
+ * instances split the backlog without handing out the same row twice. A batch whose commit
+ * fails after publishing is published again: delivery is at least once, keyed by payment id.
+ */
+@ApplicationScoped
+public class PaymentOutboxRelay {
+
+    private static final Logger LOG = Logger.getLogger(PaymentOutboxRelay.class);
+
+    @Inject
+    PaymentOutbox outbox;
+
+    @Inject
+    PaymentEventSink sink;
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "payment.outbox.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "payment.outbox.relay.threads", defaultValue = "1")
+    int threads;
+
+    @ConfigProperty(name = "payment.outbox.relay.batch-size", defaultValue = "500")
+    int batchSize;
+
+    @ConfigProperty(name = "payment.outbox.relay.poll-interval", defaultValue = "100ms")
+    Duration pollInterval;
+
+    @ConfigProperty(name = "payment.outbox.relay.failure-backoff", defaultValue = "1s")
+    Duration failureBackoff;
+
+    private final List<Thread> relays = new ArrayList<>();
+    private volatile boolean running;
+    private volatile double oldestPendingSeconds;
+
+    private Counter relayed;
+    private Counter failures;
+    private DistributionSummary batchSizes;
+    private Timer batchDuration;
+    private Timer lag;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        relayed = Counter.builder("payment.outbox.relayed")
+                .register(registry);
+        failures = Counter.builder("payment.outbox.relay.failures")
+                .register(registry);
+        batchSizes = DistributionSummary.builder("payment.outbox.relay.batch_size")
+                .serviceLevelObjectives(1, 10, 50, 100, 250, 500, 1000)
+                .register(registry);
+        batchDuration = Timer.builder("payment.outbox.relay.batch.duration")
+                .publishPercentileHistogram()
+                .register(registry);
+        lag = Timer.builder("payment.outbox.relay.lag")
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder("payment.outbox.relay.oldest_pending", this, relay -> relay.oldestPendingSeconds)
+                .baseUnit("seconds")
+                .register(registry);
+
+        running = true;
+        for (int i = 0; i < threads; i++) {
+            relays.add(Thread.ofPlatform().name("outbox-relay-" + i).daemon().start(this::run));
+        }
+        LOG.infof("Outbox relay started - Threads: %d, Batch size: %d, Poll interval: %s",
+                threads, batchSize, pollInterval);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        for (Thread relay : relays) {
+            relay.interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            Duration pause = Duration.ZERO;
+            try {
+                if (drain() < batchSize) {
+                    pause = pollInterval;
+                }
+            } catch (RuntimeException e) {
+                failures.increment();
+                LOG.warnf(e, "Outbox relay batch failed, retrying in %s", failureBackoff);
+                pause = failureBackoff;
+            }
+            if (!pause.isZero()) {
+                try {
+                    Thread.sleep(pause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private int drain() {
+        long start = System.nanoTime();
+        List<PaymentOutbox.Entry> batch = QuarkusTransaction.requiringNew().call(() -> {
+            List<PaymentOutbox.Entry> claimed = outbox.claim(batchSize);
+            oldestPendingSeconds = claimed.isEmpty() ? 0 : claimed.get(0).ageMillis() / 1000.0;
+            if (claimed.isEmpty()) {
+                return claimed;
+            }
+            List<PaymentEvent> events = new ArrayList<>(claimed.size());
+            for (PaymentOutbox.Entry entry : claimed) {
+                events.add(entry.event());
+            }
+            sink.publish(events);
+            outbox.delete(claimed);
+            return claimed;
+        });
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        batchDuration.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        batchSizes.record(batch.size());
+        relayed.increment(batch.size());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        for (PaymentOutbox.Entry entry : batch) {
+            lag.record(entry.ageMillis() + elapsedMillis, TimeUnit.MILLISECONDS);
+        }
+        return batch.size();
+    }
+}
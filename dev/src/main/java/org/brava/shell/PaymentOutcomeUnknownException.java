@@ -0,0 +1,32 @@
+package org.brava.shell;
+
+import org.brava.core.Payment;
+
+import java.io.Serial;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The payment was handed to a transaction that had not finished when the caller stopped
+ * waiting: it may still commit or roll back. Neither a success nor a failure, so the caller
+ * must not act on it as either; a retry with the same idempotency key returns the stored
+ * payment once it committed.
+ */
+public class PaymentOutcomeUnknownException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final transient CompletableFuture<Payment> outcome;
+
+    public PaymentOutcomeUnknownException(String message, CompletableFuture<Payment> outcome) {
+        super(message);
+        this.outcome = outcome;
+    }
+
+    /**
+     * Completes when the transaction does, with the saved payment or its failure.
+     */
+    public CompletableFuture<Payment> outcome() {
+        return outcome;
+    }
+}
@@ -0,0 +1,31 @@
+package org.brava.shell;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.brava.core.Payment;
+
+import java.util.List;
+import java.util.Optional;
+
+@ApplicationScoped
+public class PaymentQueryHandler {
+
+    @Inject
+    PaymentRepository repository;
+
+    @Transactional
+    public Optional<Payment> findByTransactionId(String transactionId) {
+        return repository.findByTransactionId(transactionId);
+    }
+
+    @Transactional
+    public Optional<Payment> findByIdempotencyKey(String idempotencyKey) {
+        return repository.findByIdempotencyKey(idempotencyKey);
+    }
+
+    @Transactional
+    public List<Payment> payerPage(String payerId, PaymentCursor after, int limit) {
+        return repository.findPayerPage(payerId, after, limit);
+    }
+}
@@ -1,14 +1,33 @@
 package org.brava.shell;
 
 import org.brava.core.Payment;
+import org.brava.core.RiskStats;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PaymentRepository {
     Payment save(Payment payment);
+    List<Payment> saveAll(List<Payment> payments);
     Optional<Payment> findByIdempotencyKey(String idempotencyKey);
+    Optional<Payment> findByTransactionId(String transactionId);
+    List<Payment> findPayerPage(String payerId, PaymentCursor after, int limit);
     List<Payment> findByPayerIdAndCreatedAtAfter(String payerId, LocalDateTime after);
     List<Payment> findByPayerIdAndPayeeIdAndCreatedAtAfter(String payerId, String payeeId, LocalDateTime after);
+    RiskStats findRiskStats(String payerId, String payeeId, LocalDateTime payerWindowStart, LocalDateTime payeeWindowStart);
+
+    /**
+     * Same as above, but a store backed by a database cancels the query after {@code timeout}.
+     * In-memory stores answer without waiting and ignore it.
+     */
+    default RiskStats findRiskStats(String payerId, String payeeId, LocalDateTime payerWindowStart,
+                                    LocalDateTime payeeWindowStart, Duration timeout) {
+        return findRiskStats(payerId, payeeId, payerWindowStart, payeeWindowStart);
+    }
+
+    Stream<Payment> streamCreatedAfter(LocalDateTime after);
+    Stream<String> streamIdempotencyKeys();
 }
@@ -0,0 +1,122 @@
+package org.brava.shell;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.brava.core.Money;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes synthetic payments through {@link ProcessPaymentHandler} after startup, each in a
+ * transaction that is rolled back, so class loading, the policy graph and the JIT are warm
+ * before the readiness check lets traffic in. While a warm-up thread runs them,
+ * {@link #isActive()} is true: {@link PaymentMetrics} and {@link IdempotencyCache} take the same
+ * code paths but record nothing, so the synthetic payments stay out of the business metrics
+ * and the idempotency filter.
+ */
+@ApplicationScoped
+public class PaymentWarmup {
+
+    private static final Logger LOG = Logger.getLogger(PaymentWarmup.class);
+
+    private static final long[] AMOUNTS_MINOR = {20_00, 250_00, 4_000_00, 9_000_00, 150_000_00};
+
+    private static final ThreadLocal<Boolean> ACTIVE = ThreadLocal.withInitial(() -> false);
+
+    @Inject
+    ProcessPaymentHandler handler;
+
+    @ConfigProperty(name = "payment.warmup.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "payment.warmup.requests", defaultValue = "2000")
+    int requests;
+
+    @ConfigProperty(name = "payment.warmup.threads", defaultValue = "4")
+    int threads;
+
+    @ConfigProperty(name = "payment.warmup.timeout", defaultValue = "60s")
+    Duration timeout;
+
+    private final AtomicInteger completed = new AtomicInteger();
+    private volatile boolean complete;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled || requests <= 0) {
+            complete = true;
+            return;
+        }
+        Thread.ofPlatform().name("payment-warmup").daemon().start(this::run);
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public int completedRequests() {
+        return completed.get();
+    }
+
+    static boolean isActive() {
+        return ACTIVE.get();
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        ExecutorService workers = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("payment-warmup-", 0).daemon().factory());
+        try {
+            for (int t = 0; t < threads; t++) {
+                int first = t;
+                workers.execute(() -> {
+                    ACTIVE.set(true);
+                    for (int i = first; i < requests && !Thread.currentThread().isInterrupted(); i += threads) {
+                        warm(runId, i);
+                    }
+                });
+            }
+            workers.shutdown();
+            if (!workers.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                LOG.warnf("Warm-up did not finish within %s, reporting ready anyway", timeout);
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            complete = true;
+            LOG.infof("Warm-up finished - Requests: %d, Duration: %d ms",
+                    completed.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private void warm(String runId, int i) {
+        ProcessPaymentCommand command = new ProcessPaymentCommand(
+                "warmup-" + runId + "-" + i,
+                "warmup-payer-" + (i % 64),
+                "warmup-payee-" + (i % 8),
+                Money.ofMinor(AMOUNTS_MINOR[i % AMOUNTS_MINOR.length], "BRL"),
+                "BRL",
+                "warm-up"
+        );
+        try {
+            QuarkusTransaction.requiringNew().run(() -> {
+                handler.handle(command);
+                QuarkusTransaction.setRollbackOnly();
+            });
+        } catch (RuntimeException e) {
+            LOG.debugf(e, "Warm-up request %d failed", i);
+        }
+        completed.incrementAndGet();
+    }
+}
@@ -1,12 +1,12 @@
 package org.brava.shell;
 
-import java.math.BigDecimal;
+import org.brava.core.Money;
 
 public record ProcessPaymentCommand(
         String idempotencyKey,
         String payerId,
         String payeeId,
-        BigDecimal amount,
+        Money amount,
         String currency,
         String description
 ){
@@ -2,7 +2,11 @@ package org.brava.shell;
 
 import io.smallrye.common.annotation.Blocking;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
 import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import jakarta.transaction.Transactional;
 import org.brava.core.Payment;
 import org.brava.core.PaymentDecision;
@@ -10,6 +14,11 @@ import org.brava.core.RiskContext;
 import org.brava.core.policies.PaymentPolicy;
 import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @ApplicationScoped
@@ -26,19 +35,218 @@ public class ProcessPaymentHandler {
     @Inject
     PaymentPolicy composedPolicy;
 
+    @Inject
+    RiskAggregateStore aggregates;
+
+    @Inject
+    VelocitySketchStore velocity;
+
+    @Inject
+    IdempotencyCache idempotency;
+
+    @Inject
+    TransactionIdGenerator transactionIds;
+
+    @Inject
+    PaymentMetrics metrics;
+
+    @Inject
+    AuditJournal audit;
+
+    @Inject
+    PaymentOutbox outbox;
+
+    @Inject
+    GroupCommitWriter groupCommit;
+
+    @Inject
+    TransactionSynchronizationRegistry transactions;
+
     @Transactional
     public Payment handle(ProcessPaymentCommand command) {
-        LOG.infof("Processing payment - IdempotencyKey: %s, Amount: %.2f %s",
+        return process(command, RequestDeadline.NONE);
+    }
+
+    /**
+     * Like {@link #handle(ProcessPaymentCommand)}, but the payment is not saved once the
+     * deadline has passed, and the transaction rolls back if it expires before commit.
+     */
+    @Transactional
+    public Payment handle(ProcessPaymentCommand command, RequestDeadline deadline) {
+        return process(command, deadline);
+    }
+
+    @ActivateRequestContext
+    public Payment handleGroupCommitted(ProcessPaymentCommand command) {
+        return handleGroupCommitted(command, RequestDeadline.NONE);
+    }
+
+    /**
+     * The writer commits batches of many requests, so the deadline is only checked before the
+     * payment is handed to it.
+     */
+    @ActivateRequestContext
+    public Payment handleGroupCommitted(ProcessPaymentCommand command, RequestDeadline deadline) {
+        long lookupStart = metrics.start();
+        Optional<Payment> existing = findExisting(command);
+        long lookupNanos = metrics.stop(PaymentMetrics.Stage.IDEMPOTENCY_LOOKUP, lookupStart);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        Decided decided = decide(command, lookupNanos, null, deadline);
+        deadline.check("Payment " + command.idempotencyKey());
+        aggregates.record(decided.payment());
+        long saveStart = metrics.start();
+        Payment saved;
+        try {
+            saved = groupCommit.write(decided.payment(), deadline);
+        } catch (PaymentOutcomeUnknownException e) {
+            // Kept in the aggregates until the writer's transaction settles it
+            e.outcome().whenComplete((committed, failure) -> {
+                if (failure != null) {
+                    aggregates.revert(decided.payment());
+                    return;
+                }
+                velocity.record(committed);
+                idempotency.remember(committed);
+                audit.record(decided.toAuditEvent(committed, System.nanoTime() - saveStart));
+            });
+            throw e;
+        } catch (RuntimeException e) {
+            aggregates.revert(decided.payment());
+            throw e;
+        }
+        long saveNanos = metrics.stop(PaymentMetrics.Stage.SAVE, saveStart);
+        velocity.record(saved);
+        idempotency.remember(saved);
+        audit.record(decided.toAuditEvent(saved, saveNanos));
+
+        LOG.debugf("Payment group committed - ID: %d, Status: %s", saved.id(), saved.status());
+
+        return saved;
+    }
+
+    @Transactional
+    public List<Payment> handleBatch(List<ProcessPaymentCommand> commands) {
+        Payment[] results = new Payment[commands.size()];
+        Map<String, Integer> firstByKey = new HashMap<>();
+        List<Decided> decided = new ArrayList<>(commands.size());
+        List<Payment> pending = new ArrayList<>(commands.size());
+        List<Integer> decidedSlots = new ArrayList<>(commands.size());
+        BatchOverlay batch = new BatchOverlay();
+
+        for (int i = 0; i < commands.size(); i++) {
+            ProcessPaymentCommand command = commands.get(i);
+            if (firstByKey.putIfAbsent(command.idempotencyKey(), i) != null) {
+                continue;
+            }
+
+            long lookupStart = metrics.start();
+            Optional<Payment> existing = findExisting(command);
+            long lookupNanos = metrics.stop(PaymentMetrics.Stage.IDEMPOTENCY_LOOKUP, lookupStart);
+            if (existing.isPresent()) {
+                results[i] = existing.get();
+                continue;
+            }
+
+            Decided decision = decide(command, lookupNanos, batch, RequestDeadline.NONE);
+            batch.add(decision.payment());
+            aggregates.record(decision.payment());
+            velocity.record(decision.payment());
+            decided.add(decision);
+            pending.add(decision.payment());
+            decidedSlots.add(i);
+        }
+
+        long saveStart = metrics.start();
+        List<Payment> saved = repository.saveAll(pending);
+        outbox.append(saved);
+        long saveNanos = metrics.stop(PaymentMetrics.Stage.SAVE, saveStart);
+        for (int j = 0; j < saved.size(); j++) {
+            idempotency.remember(saved.get(j));
+            audit.record(decided.get(j).toAuditEvent(saved.get(j), saveNanos));
+            results[decidedSlots.get(j)] = saved.get(j);
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = results[firstByKey.get(commands.get(i).idempotencyKey())];
+            }
+        }
+
+        LOG.debugf("Payment batch persisted - Size: %d, New: %d", commands.size(), saved.size());
+
+        return Arrays.asList(results);
+    }
+
+    @Transactional
+    public Optional<Payment> findProcessed(String idempotencyKey) {
+        return idempotency.findInRepository(idempotencyKey);
+    }
+
+    private Payment process(ProcessPaymentCommand command, RequestDeadline deadline) {
+        long lookupStart = metrics.start();
+        Optional<Payment> existing = findExisting(command);
+        long lookupNanos = metrics.stop(PaymentMetrics.Stage.IDEMPOTENCY_LOOKUP, lookupStart);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        Decided decided = decide(command, lookupNanos, null, deadline);
+        enforce(deadline, command);
+        long saveStart = metrics.start();
+        Payment saved = repository.save(decided.payment());
+        outbox.append(List.of(saved));
+        long saveNanos = metrics.stop(PaymentMetrics.Stage.SAVE, saveStart);
+        aggregates.record(saved);
+        velocity.record(saved);
+        idempotency.remember(saved);
+        audit.record(decided.toAuditEvent(saved, saveNanos));
+
+        LOG.debugf("Payment persisted - ID: %d, Status: %s", saved.id(), saved.status());
+
+        return saved;
+    }
+
+    /**
+     * Fails before the save once the deadline has passed, and rolls back a transaction that
+     * reaches commit after it, so a payment answered with DEADLINE_EXCEEDED is never stored.
+     */
+    private void enforce(RequestDeadline deadline, ProcessPaymentCommand command) {
+        if (!deadline.isBounded()) {
+            return;
+        }
+        deadline.check("Payment " + command.idempotencyKey());
+        transactions.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                if (deadline.isExpired() && transactions.getTransactionStatus() == Status.STATUS_ACTIVE) {
+                    LOG.debugf("Latency budget spent before commit, rolling back - IdempotencyKey: %s",
+                            command.idempotencyKey());
+                    transactions.setRollbackOnly();
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+            }
+        });
+    }
+
+    private Optional<Payment> findExisting(ProcessPaymentCommand command) {
+        LOG.debugf("Processing payment - IdempotencyKey: %s, Amount: %s %s",
                 command.idempotencyKey(),
                 command.amount(),
                 command.currency());
 
-        Optional<Payment> existing = repository.findByIdempotencyKey(command.idempotencyKey());
+        Optional<Payment> existing = idempotency.find(command.idempotencyKey());
         if (existing.isPresent()) {
-            LOG.infof("Payment already processed: %s", existing.get().transactionId());
-            return existing.get();
+            LOG.debugf("Payment already processed: %s", existing.get().transactionId());
         }
+        return existing;
+    }
 
+    private Decided decide(ProcessPaymentCommand command, long lookupNanos, BatchOverlay batch, RequestDeadline deadline) {
         Payment payment = Payment.createPending(
                 command.idempotencyKey(),
                 command.payerId(),
@@ -48,28 +256,32 @@ public class ProcessPaymentHandler {
                 command.description()
         );
 
-        RiskContext context = riskEngine.buildContext(payment);
+        long contextStart = metrics.start();
+        RiskContext context = riskEngine.buildContext(payment, batch, deadline);
+        long contextNanos = metrics.stop(PaymentMetrics.Stage.BUILD_CONTEXT, contextStart);
 
-        PaymentDecision decision = composedPolicy.evaluate(context);
+        long policiesStart = metrics.start();
+        PaymentDecision decision = metrics.evaluate(composedPolicy, context);
+        long policiesNanos = metrics.stop(PaymentMetrics.Stage.POLICIES, policiesStart);
 
-        LOG.infof("Policy decision: %s", decision);
-
-        Payment finalPayment = switch (decision) {
-            case PaymentDecision.Approved(String txnId, String reason) -> {
-                LOG.infof("Payment approved - %s", reason);
-                yield payment.approve(txnId);
+        return switch (decision) {
+            case PaymentDecision.Approved approved -> {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debugf("Payment approved - %s", approved.reason());
+                }
+                yield new Decided(payment.approve(transactionIds.nextTransactionId()), 0, lookupNanos, contextNanos, policiesNanos);
             }
             case PaymentDecision.Declined(String reason, int score) -> {
-                LOG.warnf("Payment declined (risk: %d) - %s", score, reason);
-                yield payment.decline(reason);
+                LOG.debugf("Payment declined (risk: %d) - %s", score, reason);
+                yield new Decided(payment.decline(reason), score, lookupNanos, contextNanos, policiesNanos);
             }
         };
+    }
 
-        Payment saved = repository.save(finalPayment);
-
-        LOG.infof("Payment persisted - ID: %d, Status: %s", saved.id(), saved.status());
+    private record Decided(Payment payment, int riskScore, long lookupNanos, long contextNanos, long policiesNanos) {
 
-        return saved;
+        AuditEvent toAuditEvent(Payment saved, long saveNanos) {
+            return new AuditEvent(saved, riskScore, lookupNanos, contextNanos, policiesNanos, saveNanos);
+        }
     }
-
 }
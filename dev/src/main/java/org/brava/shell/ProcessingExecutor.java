@@ -0,0 +1,101 @@
+package org.brava.shell;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@ApplicationScoped
+public class ProcessingExecutor {
+
+    private static final Logger LOG = Logger.getLogger(ProcessingExecutor.class);
+
+    public enum Mode {
+        WORKER,
+        VIRTUAL,
+        PARTITIONED
+    }
+
+    @Inject
+    MeterRegistry registry;
+
+    @ConfigProperty(name = "payment.processing.executor", defaultValue = "worker")
+    Mode mode;
+
+    @ConfigProperty(name = "payment.processing.latency-budget", defaultValue = "2s")
+    Duration latencyBudget;
+
+    @ConfigProperty(name = "payment.processing.partitions", defaultValue = "8")
+    int partitionCount;
+
+    @ConfigProperty(name = "payment.processing.partition-queue-capacity", defaultValue = "1024")
+    int partitionQueueCapacity;
+
+    private ExecutorService virtualThreads;
+    private PayerPartition[] partitions;
+
+    @PostConstruct
+    void init() {
+        if (mode == Mode.VIRTUAL) {
+            virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+        }
+        if (mode == Mode.PARTITIONED) {
+            partitions = new PayerPartition[partitionCount];
+            for (int i = 0; i < partitionCount; i++) {
+                PayerPartition partition = new PayerPartition(i, partitionQueueCapacity);
+                partitions[i] = partition;
+                Gauge.builder("payment.processing.partition.queue_depth", partition, PayerPartition::depth)
+                        .tag("partition", String.valueOf(i))
+                        .register(registry);
+            }
+        }
+        LOG.infof("Payment processing executor - Mode: %s, Latency budget: %s", mode, latencyBudget);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (virtualThreads != null) {
+            virtualThreads.shutdown();
+        }
+        if (partitions != null) {
+            for (PayerPartition partition : partitions) {
+                partition.shutdown();
+            }
+        }
+    }
+
+    public Executor executor() {
+        return mode == Mode.VIRTUAL ? virtualThreads : Infrastructure.getDefaultWorkerPool();
+    }
+
+    public Executor executor(String payerId) {
+        return isPartitioned() ? partitions[partitionOf(payerId)] : executor();
+    }
+
+    public boolean isPartitioned() {
+        return mode == Mode.PARTITIONED;
+    }
+
+    public int partitionOf(String payerId) {
+        int hash = payerId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), partitions.length);
+    }
+
+    public Executor partition(int index) {
+        return partitions[index];
+    }
+
+    public Duration latencyBudget() {
+        return latencyBudget;
+    }
+}
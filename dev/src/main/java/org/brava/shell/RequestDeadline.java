@@ -0,0 +1,43 @@
+package org.brava.shell;
+
+import java.time.Duration;
+
+/**
+ * The {@code System.nanoTime()} past which the caller no longer waits for a payment. Work
+ * checked against it fails with {@link LatencyBudgetExceededException} instead of saving a
+ * payment the client was already told timed out.
+ */
+public final class RequestDeadline {
+
+    public static final RequestDeadline NONE = new RequestDeadline(0, false);
+
+    private final long deadlineNanos;
+    private final boolean bounded;
+
+    private RequestDeadline(long deadlineNanos, boolean bounded) {
+        this.deadlineNanos = deadlineNanos;
+        this.bounded = bounded;
+    }
+
+    public static RequestDeadline after(long startNanos, long budgetNanos) {
+        return new RequestDeadline(startNanos + budgetNanos, true);
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    public boolean isExpired() {
+        return bounded && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    public Duration remaining() {
+        return bounded ? Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime())) : Duration.ofNanos(Long.MAX_VALUE);
+    }
+
+    public void check(String stage) {
+        if (isExpired()) {
+            throw new LatencyBudgetExceededException(stage + " not completed within the latency budget");
+        }
+    }
+}
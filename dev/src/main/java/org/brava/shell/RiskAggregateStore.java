@@ -0,0 +1,208 @@
+package org.brava.shell;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.brava.core.Payment;
+import org.brava.core.RiskAggregates;
+import org.brava.core.RiskStats;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+@ApplicationScoped
+public class RiskAggregateStore {
+
+    private static final Logger LOG = Logger.getLogger(RiskAggregateStore.class);
+
+    @Inject
+    PaymentRepository repository;
+
+    @Inject
+    TransactionSynchronizationRegistry transactions;
+
+    @ConfigProperty(name = "payment.risk.aggregates.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "payment.routing.enabled", defaultValue = "false")
+    boolean routing;
+
+    @ConfigProperty(name = "quarkus.transaction-manager.default-transaction-timeout", defaultValue = "60s")
+    Duration transactionTimeout;
+
+    private volatile RiskAggregates aggregates = new RiskAggregates();
+    private volatile boolean ready;
+    private Queue<Payment> pendingDuringRebuild;
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private final AtomicLong lastEvictionDay = new AtomicLong(Long.MIN_VALUE);
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            if (!routing) {
+                LOG.warn("Risk aggregates are enabled without payer routing: they only see this instance's "
+                        + "payments, so with more than one replica the risk windows undercount");
+            }
+            rebuild();
+        }
+    }
+
+    void onOwnershipChanged(@Observes PayerOwnershipChanged event) {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public RiskStats stats(String payerId, String payeeId, LocalDateTime asOf) {
+        return aggregates.stats(payerId, payeeId, asOf);
+    }
+
+    public void record(Payment payment) {
+        if (!enabled) {
+            return;
+        }
+        boolean tracked = apply(payment, true);
+        evictIdleOncePerDay(payment.createdAt());
+
+        if (transactions.getTransactionStatus() == Status.STATUS_ACTIVE) {
+            transactions.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != Status.STATUS_COMMITTED) {
+                        apply(payment, false);
+                    } else if (!tracked) {
+                        // Recorded before a rebuild began but committed during it
+                        trackLate(payment);
+                    }
+                }
+            });
+        }
+    }
+
+    public void revert(Payment payment) {
+        if (enabled) {
+            apply(payment, false);
+        }
+    }
+
+    @Transactional
+    public void rebuild() {
+        LocalDateTime since = LocalDateTime.now().minusDays(RiskAggregates.PAYER_WINDOW_DAYS);
+        LOG.infof("Rebuilding risk aggregates from payments created after %s", since);
+
+        rebuildLock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ConcurrentLinkedQueue<>();
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+
+        // Only a payment created this recently can be both streamed and recorded during the rebuild
+        LocalDateTime inFlightSince = LocalDateTime.now().minus(transactionTimeout);
+        Set<String> streamedInFlight = new HashSet<>();
+        RiskAggregates rebuilt = new RiskAggregates();
+        long loaded = 0;
+        try (Stream<Payment> payments = repository.streamCreatedAfter(since)) {
+            Iterator<Payment> iterator = payments.iterator();
+            while (iterator.hasNext()) {
+                Payment payment = iterator.next();
+                rebuilt.record(payment);
+                if (!payment.createdAt().isBefore(inFlightSince)) {
+                    streamedInFlight.add(payment.idempotencyKey());
+                }
+                loaded++;
+            }
+        } catch (RuntimeException e) {
+            rebuildLock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                rebuildLock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        rebuildLock.writeLock().lock();
+        try {
+            for (Payment payment : pendingDuringRebuild) {
+                // Committed before the stream's snapshot, so already counted
+                if (!streamedInFlight.contains(payment.idempotencyKey())) {
+                    rebuilt.record(payment);
+                }
+            }
+            pendingDuringRebuild = null;
+            aggregates = rebuilt;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+        ready = true;
+
+        LOG.infof("Risk aggregates rebuilt - Payments: %d, Payers: %d", loaded, rebuilt.size());
+    }
+
+    /**
+     * Returns whether a rebuild was running, so the payment is also replayed into its result.
+     */
+    private boolean apply(Payment payment, boolean add) {
+        rebuildLock.readLock().lock();
+        try {
+            if (add) {
+                aggregates.record(payment);
+                if (pendingDuringRebuild != null) {
+                    pendingDuringRebuild.add(payment);
+                    return true;
+                }
+            } else {
+                aggregates.revert(payment);
+                if (pendingDuringRebuild != null) {
+                    pendingDuringRebuild.remove(payment);
+                }
+            }
+            return false;
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private void trackLate(Payment payment) {
+        rebuildLock.readLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(payment);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private void evictIdleOncePerDay(LocalDateTime now) {
+        long today = now.toLocalDate().toEpochDay();
+        long last = lastEvictionDay.get();
+        if (last < today && lastEvictionDay.compareAndSet(last, today)) {
+            aggregates.evictIdle(now);
+        }
+    }
+}
@@ -3,13 +3,12 @@ package org.brava.shell;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.brava.core.Payment;
-import org.brava.core.PaymentStatus;
 import org.brava.core.RiskContext;
+import org.brava.core.RiskStats;
+import org.brava.core.VelocityStats;
 import org.jboss.logging.Logger;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
 
 @ApplicationScoped
 public class RiskPolicyEngine {
@@ -19,47 +18,57 @@ public class RiskPolicyEngine {
     @Inject
     PaymentRepository repository;
 
-    public RiskContext buildContext(Payment payment) {
-        LOG.debugf("Building risk context for payer: %s", payment.payerId());
+    @Inject
+    RiskAggregateStore aggregates;
 
-        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-        LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
+    @Inject
+    VelocitySketchStore velocity;
 
-        List<Payment> recentPayments = repository.findByPayerIdAndCreatedAtAfter(
-                payment.payerId(),
-                thirtyDaysAgo
-        );
+    public RiskContext buildContext(Payment payment) {
+        return buildContext(payment, null, RequestDeadline.NONE);
+    }
 
-        int successfulCount = (int) recentPayments.stream()
-                .filter(p -> p.status() == PaymentStatus.APPROVED)
-                .count();
+    /**
+     * Aggregates already count payments recorded earlier in a batch; the risk query only sees
+     * them once the batch is saved, and the velocity sketches once it commits, so {@code batch}
+     * is added on top of their results. The query is cancelled when {@code deadline} passes.
+     */
+    RiskContext buildContext(Payment payment, BatchOverlay batch, RequestDeadline deadline) {
+        LOG.debugf("Building risk context for payer: %s", payment.payerId());
 
-        BigDecimal totalAmount = recentPayments.stream()
-                .filter(p -> p.status() == PaymentStatus.APPROVED)
-                .map(Payment::amount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        LocalDateTime now = LocalDateTime.now();
+        RiskStats stats;
+        if (aggregates.isReady()) {
+            stats = aggregates.stats(payment.payerId(), payment.payeeId(), now);
+        } else {
+            stats = loadStats(payment, now, deadline);
+            if (batch != null) {
+                stats = batch.applyTo(stats, payment);
+            }
+        }
 
-        List<Payment> paymentsToSamePayee = repository.findByPayerIdAndPayeeIdAndCreatedAtAfter(
-                payment.payerId(),
-                payment.payeeId(),
-                sevenDaysAgo
-        );
+        VelocityStats recent = velocity.stats(payment.payerId(), payment.payeeId(), now);
+        if (batch != null) {
+            recent = batch.applyTo(recent, payment);
+        }
 
-        LocalDateTime lastToSamePayee = paymentsToSamePayee.stream()
-                .map(Payment::createdAt)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
+        return RiskContext.of(payment, stats, recent, now);
+    }
 
-        return new RiskContext(
-                payment.payerId(),
-                payment.payeeId(),
-                payment.amount(),
-                payment.currency(),
-                successfulCount,
-                totalAmount,
-                paymentsToSamePayee.size(),
-                lastToSamePayee,
-                recentPayments.isEmpty()
-        );
+    private RiskStats loadStats(Payment payment, LocalDateTime now, RequestDeadline deadline) {
+        if (!deadline.isBounded()) {
+            return repository.findRiskStats(payment.payerId(), payment.payeeId(), now.minusDays(30), now.minusDays(7));
+        }
+        deadline.check("Risk context for payer " + payment.payerId());
+        try {
+            return repository.findRiskStats(payment.payerId(), payment.payeeId(), now.minusDays(30), now.minusDays(7),
+                    deadline.remaining());
+        } catch (RuntimeException e) {
+            if (deadline.isExpired()) {
+                throw new LatencyBudgetExceededException("Risk context for payer " + payment.payerId()
+                        + " not built within the latency budget", e);
+            }
+            throw e;
+        }
     }
 }
@@ -0,0 +1,5 @@
+package org.brava.shell;
+
+public interface TransactionIdGenerator {
+    String nextTransactionId();
+}
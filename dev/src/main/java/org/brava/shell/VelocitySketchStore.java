@@ -0,0 +1,183 @@
+package org.brava.shell;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.brava.core.Payment;
+import org.brava.core.VelocityStats;
+import org.brava.core.sketch.VelocitySketches;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+@ApplicationScoped
+public class VelocitySketchStore {
+
+    private static final Logger LOG = Logger.getLogger(VelocitySketchStore.class);
+
+    @Inject
+    PaymentRepository repository;
+
+    @Inject
+    TransactionSynchronizationRegistry transactions;
+
+    @ConfigProperty(name = "payment.risk.velocity.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "payment.risk.velocity.window", defaultValue = "1h")
+    Duration window;
+
+    @ConfigProperty(name = "payment.risk.velocity.generations", defaultValue = "4")
+    int generations;
+
+    @ConfigProperty(name = "payment.risk.velocity.distinct-payee-registers", defaultValue = "4194304")
+    int distinctPayeeRegisters;
+
+    @ConfigProperty(name = "payment.risk.velocity.pair-counters", defaultValue = "262144")
+    int pairCounters;
+
+    @ConfigProperty(name = "quarkus.transaction-manager.default-transaction-timeout", defaultValue = "60s")
+    Duration transactionTimeout;
+
+    private volatile VelocitySketches sketches;
+    private Queue<Payment> committedDuringRebuild;
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    void init() {
+        if (enabled) {
+            sketches = newSketches();
+            LOG.infof("Velocity sketches - Window: %s, Size: %d bytes", window, sketches.sizeInBytes());
+        }
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    void onOwnershipChanged(@Observes PayerOwnershipChanged event) {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public VelocityStats stats(String payerId, String payeeId, LocalDateTime asOf) {
+        return enabled ? sketches.stats(payerId, payeeId, asOf) : VelocityStats.EMPTY;
+    }
+
+    /**
+     * Sketches cannot forget a payment, so inside a transaction it is only counted once
+     * committed.
+     */
+    public void record(Payment payment) {
+        if (!enabled) {
+            return;
+        }
+        if (transactions.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            apply(payment);
+            return;
+        }
+        transactions.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    apply(payment);
+                }
+            }
+        });
+    }
+
+    /**
+     * Payments committed while the database is streamed are replayed into the new sketches
+     * afterwards, except those the stream already returned: a sketch cannot tell a payment
+     * counted twice from two payments.
+     */
+    @Transactional
+    public void rebuild() {
+        LocalDateTime since = LocalDateTime.now().minus(window);
+        // Only a payment created this recently can be both streamed and committed during the rebuild
+        LocalDateTime inFlightSince = LocalDateTime.now().minus(transactionTimeout);
+
+        rebuildLock.writeLock().lock();
+        try {
+            committedDuringRebuild = new ConcurrentLinkedQueue<>();
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+
+        Set<String> streamedInFlight = new HashSet<>();
+        VelocitySketches rebuilt = newSketches();
+        long loaded = 0;
+        try (Stream<Payment> payments = repository.streamCreatedAfter(since)) {
+            Iterator<Payment> iterator = payments.iterator();
+            while (iterator.hasNext()) {
+                Payment payment = iterator.next();
+                rebuilt.record(payment);
+                if (!payment.createdAt().isBefore(inFlightSince)) {
+                    streamedInFlight.add(payment.idempotencyKey());
+                }
+                loaded++;
+            }
+        } catch (RuntimeException e) {
+            rebuildLock.writeLock().lock();
+            try {
+                committedDuringRebuild = null;
+            } finally {
+                rebuildLock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        rebuildLock.writeLock().lock();
+        try {
+            for (Payment payment : committedDuringRebuild) {
+                if (!streamedInFlight.contains(payment.idempotencyKey())) {
+                    rebuilt.record(payment);
+                }
+            }
+            committedDuringRebuild = null;
+            sketches = rebuilt;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+        LOG.infof("Velocity sketches rebuilt - Payments: %d", loaded);
+    }
+
+    private void apply(Payment payment) {
+        rebuildLock.readLock().lock();
+        try {
+            sketches.record(payment);
+            if (committedDuringRebuild != null) {
+                committedDuringRebuild.add(payment);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private VelocitySketches newSketches() {
+        return new VelocitySketches(window, generations, distinctPayeeRegisters, pairCounters);
+    }
+}
@@ -0,0 +1,7 @@
+ALTER TABLE payments ALTER COLUMN id DROP DEFAULT;
+
+ALTER SEQUENCE payments_id_seq INCREMENT BY 50;
+
+SELECT setval('payments_id_seq', COALESCE((SELECT MAX(id) FROM payments), 0) + 50, false);
+
+COMMENT ON SEQUENCE payments_id_seq IS 'Sequência com alocação em blocos de 50 (otimizador pooled do Hibernate)';
@@ -0,0 +1,107 @@
+ALTER TABLE payments RENAME TO payments_legacy;
+ALTER TABLE payments_legacy RENAME CONSTRAINT payments_pkey TO payments_legacy_pkey;
+ALTER SEQUENCE payments_id_seq OWNED BY NONE;
+
+DROP INDEX idx_idempotency_key;
+DROP INDEX idx_transaction_id;
+DROP INDEX idx_payer_id;
+DROP INDEX idx_status;
+DROP INDEX idx_created_at;
+
+CREATE TABLE payments (
+      id BIGINT NOT NULL,
+      idempotency_key VARCHAR(255) NOT NULL,
+      transaction_id VARCHAR(100) NOT NULL,
+      payer_id VARCHAR(100) NOT NULL,
+      payee_id VARCHAR(100) NOT NULL,
+      amount NUMERIC(19, 2) NOT NULL CHECK (amount > 0),
+      currency VARCHAR(3) NOT NULL,
+      description VARCHAR(500),
+      status VARCHAR(20) NOT NULL,
+      message VARCHAR(500),
+      created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+      updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+      PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE payments_id_seq OWNED BY payments.id;
+
+CREATE TABLE payments_default PARTITION OF payments DEFAULT;
+
+-- Unique indexes on a partitioned table must include the partition key, so global
+-- uniqueness of idempotency_key and transaction_id is enforced through key tables.
+CREATE TABLE payment_idempotency_keys (
+      idempotency_key VARCHAR(255) PRIMARY KEY
+);
+
+CREATE TABLE payment_transaction_ids (
+      transaction_id VARCHAR(100) PRIMARY KEY
+);
+
+CREATE FUNCTION payments_register_unique_keys() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO payment_idempotency_keys (idempotency_key) VALUES (NEW.idempotency_key);
+    INSERT INTO payment_transaction_ids (transaction_id) VALUES (NEW.transaction_id);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_payments_unique_keys
+    BEFORE INSERT ON payments
+    FOR EACH ROW EXECUTE FUNCTION payments_register_unique_keys();
+
+CREATE FUNCTION create_payments_partition(month_start DATE) RETURNS VOID AS $$
+DECLARE
+    first_day DATE := date_trunc('month', month_start)::DATE;
+BEGIN
+    EXECUTE format(
+        'CREATE TABLE IF NOT EXISTS %I PARTITION OF payments FOR VALUES FROM (%L) TO (%L)',
+        'payments_' || to_char(first_day, 'YYYY_MM'),
+        first_day,
+        (first_day + INTERVAL '1 month')::DATE
+    );
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION ensure_payments_partitions(months_ahead INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    current_month DATE := date_trunc('month', CURRENT_DATE)::DATE;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        PERFORM create_payments_partition((current_month + make_interval(months => i))::DATE);
+    END LOOP;
+    RETURN months_ahead + 1;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+DECLARE
+    legacy_month DATE;
+BEGIN
+    FOR legacy_month IN SELECT DISTINCT date_trunc('month', created_at)::DATE FROM payments_legacy LOOP
+        PERFORM create_payments_partition(legacy_month);
+    END LOOP;
+END;
+$$;
+
+SELECT ensure_payments_partitions(3);
+
+CREATE INDEX idx_idempotency_key ON payments (idempotency_key);
+CREATE INDEX idx_transaction_id ON payments (transaction_id);
+CREATE INDEX idx_payer_created_at ON payments (payer_id, created_at) INCLUDE (status, amount, payee_id);
+CREATE INDEX idx_payer_payee_created_at ON payments (payer_id, payee_id, created_at);
+
+INSERT INTO payments (id, idempotency_key, transaction_id, payer_id, payee_id, amount, currency,
+                      description, status, message, created_at, updated_at)
+SELECT id, idempotency_key, transaction_id, payer_id, payee_id, amount, currency,
+       description, status, message, created_at, updated_at
+FROM payments_legacy;
+
+DROP TABLE payments_legacy;
+
+COMMENT ON TABLE payments IS 'Tabela de pagamentos processados, particionada mensalmente por created_at';
+COMMENT ON COLUMN payments.idempotency_key IS 'Chave de idempotência para evitar duplicação';
+COMMENT ON COLUMN payments.transaction_id IS 'ID único da transação gerado pelo sistema';
+COMMENT ON COLUMN payments.status IS 'Status do pagamento: PENDING, APPROVED, DECLINED, FAILED, CANCELLED';
+COMMENT ON INDEX idx_payer_created_at IS 'Cobre a janela de 30 dias do pagador (index-only scan)';
+COMMENT ON INDEX idx_payer_payee_created_at IS 'Cobre a janela de 7 dias pagador+recebedor (index-only scan)';
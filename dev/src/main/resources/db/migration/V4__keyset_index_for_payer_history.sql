@@ -0,0 +1,7 @@
+-- (payer_id, created_at, id) serves both the 30-day window and keyset pagination of a
+-- payer's history, so it replaces idx_payer_created_at instead of sitting next to it.
+CREATE INDEX idx_payer_created_at_id ON payments (payer_id, created_at, id) INCLUDE (status, amount, payee_id);
+
+DROP INDEX idx_payer_created_at;
+
+COMMENT ON INDEX idx_payer_created_at_id IS 'Cobre a janela de 30 dias do pagador e a paginação por (created_at, id)';
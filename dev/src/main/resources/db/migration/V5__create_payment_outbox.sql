@@ -0,0 +1,18 @@
+-- Decisions waiting to be relayed downstream. Rows are written in the same transaction as the
+-- payment and deleted in bulk once the relay has handed them to the sink, so the table stays
+-- small; autovacuum runs on a fixed number of dead rows instead of a fraction of the table.
+CREATE TABLE payment_outbox (
+      id BIGSERIAL PRIMARY KEY,
+      payment_id BIGINT NOT NULL,
+      transaction_id VARCHAR(100),
+      payer_id VARCHAR(100) NOT NULL,
+      payee_id VARCHAR(100) NOT NULL,
+      amount NUMERIC(19, 2) NOT NULL,
+      currency VARCHAR(3) NOT NULL,
+      status VARCHAR(20) NOT NULL,
+      created_at TIMESTAMP NOT NULL,
+      enqueued_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP
+) WITH (autovacuum_vacuum_scale_factor = 0, autovacuum_vacuum_threshold = 10000);
+
+COMMENT ON TABLE payment_outbox IS 'Eventos de decisão de pagamento pendentes de envio (outbox transacional)';
+COMMENT ON COLUMN payment_outbox.enqueued_at IS 'Momento da gravação, usado para medir o atraso do relay';
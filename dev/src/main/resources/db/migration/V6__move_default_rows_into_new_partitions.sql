@@ -0,0 +1,71 @@
+-- Rows land in payments_default when their month has no partition yet (maintenance missed,
+-- backdated created_at). PostgreSQL then refuses to create that month's partition while the
+-- rows sit in DEFAULT, so the partition is created with DEFAULT detached and the rows moved in.
+CREATE OR REPLACE FUNCTION create_payments_partition(month_start DATE) RETURNS VOID AS $$
+DECLARE
+    first_day DATE := date_trunc('month', month_start)::DATE;
+    next_month DATE := (date_trunc('month', month_start) + INTERVAL '1 month')::DATE;
+    partition_name TEXT := 'payments_' || to_char(date_trunc('month', month_start), 'YYYY_MM');
+    moved BIGINT;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+
+    -- Held until commit: inserts wait instead of failing while DEFAULT is detached
+    LOCK TABLE payments IN ACCESS EXCLUSIVE MODE;
+
+    IF NOT EXISTS (SELECT 1 FROM payments_default WHERE created_at >= first_day AND created_at < next_month) THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF payments FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, first_day, next_month);
+        RETURN;
+    END IF;
+
+    ALTER TABLE payments DETACH PARTITION payments_default;
+    EXECUTE format('CREATE TABLE %I PARTITION OF payments FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, first_day, next_month);
+
+    -- Moved rows pass through the key trigger again, so their keys are released first
+    DELETE FROM payment_idempotency_keys k
+    USING payments_default d
+    WHERE k.idempotency_key = d.idempotency_key
+      AND d.created_at >= first_day AND d.created_at < next_month;
+    DELETE FROM payment_transaction_ids t
+    USING payments_default d
+    WHERE t.transaction_id = d.transaction_id
+      AND d.created_at >= first_day AND d.created_at < next_month;
+
+    WITH stray AS (
+        DELETE FROM payments_default
+        WHERE created_at >= first_day AND created_at < next_month
+        RETURNING *
+    )
+    INSERT INTO payments SELECT * FROM stray;
+    GET DIAGNOSTICS moved = ROW_COUNT;
+
+    ALTER TABLE payments ATTACH PARTITION payments_default DEFAULT;
+    RAISE WARNING 'Moved % payments from payments_default into %', moved, partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Besides the months ahead, gives every month found in DEFAULT its own partition
+CREATE OR REPLACE FUNCTION ensure_payments_partitions(months_ahead INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    current_month DATE := date_trunc('month', CURRENT_DATE)::DATE;
+    stray_months DATE[];
+    stray_month DATE;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        PERFORM create_payments_partition((current_month + make_interval(months => i))::DATE);
+    END LOOP;
+
+    -- Collected first: DEFAULT cannot be detached while a loop still reads it
+    SELECT array_agg(DISTINCT date_trunc('month', created_at)::DATE) INTO stray_months FROM payments_default;
+    IF stray_months IS NOT NULL THEN
+        FOREACH stray_month IN ARRAY stray_months LOOP
+            PERFORM create_payments_partition(stray_month);
+        END LOOP;
+    END IF;
+    RETURN months_ahead + 1;
+END;
+$$ LANGUAGE plpgsql;
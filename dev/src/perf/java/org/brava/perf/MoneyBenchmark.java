@@ -0,0 +1,66 @@
+package org.brava.perf;
+
+import org.brava.core.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final int HISTORY = 100;
+
+    private final Money money = Money.ofMinor(9_876_54, "BRL");
+    private final BigDecimal decimal = new BigDecimal("9876.54");
+    private final Money[] moneyHistory = new Money[HISTORY];
+    private final BigDecimal[] decimalHistory = new BigDecimal[HISTORY];
+
+    public MoneyBenchmark() {
+        for (int i = 0; i < HISTORY; i++) {
+            moneyHistory[i] = Money.ofMinor(1_000 + i * 37L, "BRL");
+            decimalHistory[i] = moneyHistory[i].toBigDecimal();
+        }
+    }
+
+    @Benchmark
+    public boolean compareMoney() {
+        return money.compareTo(10_000, 0) > 0;
+    }
+
+    @Benchmark
+    public boolean compareBigDecimal() {
+        return decimal.compareTo(BigDecimal.valueOf(10_000)) > 0;
+    }
+
+    @Benchmark
+    public long sumMoney() {
+        long total = 0;
+        for (Money amount : moneyHistory) {
+            total += amount.toMinor(Money.STORAGE_SCALE);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal sumBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimalHistory) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+}
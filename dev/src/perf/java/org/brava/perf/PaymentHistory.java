@@ -0,0 +1,42 @@
+package org.brava.perf;
+
+import org.brava.core.Money;
+import org.brava.core.Payment;
+import org.brava.core.PaymentStatus;
+import org.brava.core.RiskAggregates;
+import org.brava.infrastructure.memory.InMemoryPaymentRepository;
+
+import java.time.LocalDateTime;
+
+final class PaymentHistory {
+
+    private static final int SHARDS = 64;
+
+    private PaymentHistory() {
+    }
+
+    static InMemoryPaymentRepository repository() {
+        return new InMemoryPaymentRepository(SHARDS);
+    }
+
+    static void seed(InMemoryPaymentRepository repository, String payerId, int size, int payees, LocalDateTime now) {
+        long spreadMinutes = (RiskAggregates.PAYER_WINDOW_DAYS - 1) * 24L * 60L;
+        for (int i = 0; i < size; i++) {
+            LocalDateTime createdAt = now.minusMinutes(1 + spreadMinutes * i / size);
+            repository.save(new Payment(
+                    null,
+                    payerId + "-history-" + i,
+                    payerId,
+                    "payee-" + (i % payees),
+                    Money.ofMinor(1_000 + (i * 7_919L) % 50_000, "BRL"),
+                    "BRL",
+                    "history",
+                    i % 10 == 0 ? PaymentStatus.DECLINED : PaymentStatus.APPROVED,
+                    i % 10 == 0 ? null : "txn-history-" + i,
+                    null,
+                    createdAt,
+                    createdAt
+            ));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.brava.perf;
+
+import org.brava.core.Money;
+import org.brava.core.PaymentDecision;
+import org.brava.core.RiskContext;
+import org.brava.core.policies.AmountLimitPolicy;
+import org.brava.core.policies.FrequencyPolicy;
+import org.brava.core.policies.HistoryBasedPolicy;
+import org.brava.core.policies.PaymentPolicy;
+import org.brava.core.policies.ReloadablePolicy;
+import org.brava.infrastructure.config.PolicyConfiguration;
+import org.brava.infrastructure.config.RiskRules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolicyBenchmark {
+
+    @Param({"approve", "decline"})
+    String outcome;
+
+    private final PaymentPolicy amountLimit = new AmountLimitPolicy();
+    private final PaymentPolicy historyBased = new HistoryBasedPolicy();
+    private final PaymentPolicy frequency = new FrequencyPolicy();
+    private final PaymentPolicy composed = PolicyConfiguration.defaultPolicy();
+
+    private PaymentPolicy rules;
+    private RiskContext context;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream in = PolicyBenchmark.class.getResourceAsStream("/risk-rules.properties")) {
+            rules = new ReloadablePolicy(RiskRules.load(in));
+        }
+
+        boolean approve = outcome.equals("approve");
+        context = new RiskContext(
+                "payer-1",
+                "payee-1",
+                Money.ofMinor(approve ? 250_00 : 9_000_00, "BRL"),
+                "BRL",
+                approve ? 25 : 3,
+                Money.minorUnits(approve ? 12_000 : 300, Money.STORAGE_SCALE),
+                approve ? 1 : 6,
+                LocalDateTime.now().minusDays(1),
+                false,
+                approve ? 3 : 40,
+                1,
+                LocalDateTime.now()
+        );
+    }
+
+    @Benchmark
+    public PaymentDecision amountLimit() {
+        return amountLimit.evaluate(context);
+    }
+
+    @Benchmark
+    public PaymentDecision historyBased() {
+        return historyBased.evaluate(context);
+    }
+
+    @Benchmark
+    public PaymentDecision frequency() {
+        return frequency.evaluate(context);
+    }
+
+    @Benchmark
+    public PaymentDecision composedChain() {
+        return composed.evaluate(context);
+    }
+
+    @Benchmark
+    public PaymentDecision rulesChain() {
+        return rules.evaluate(context);
+    }
+}
@@ -0,0 +1,81 @@
+package org.brava.perf;
+
+import org.brava.core.Money;
+import org.brava.core.Payment;
+import org.brava.infrastructure.config.PolicyConfiguration;
+import org.brava.infrastructure.memory.InMemoryPaymentRepository;
+import org.brava.shell.ProcessPaymentCommand;
+import org.brava.shell.ProcessPaymentHandler;
+import org.brava.shell.ShellFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {
+        "-Dorg.jboss.logging.provider=jdk",
+        "-Djava.util.logging.config.file=target/test-classes/perf-logging.properties"
+})
+public class ProcessPaymentHandlerBenchmark {
+
+    private static final int PAYERS = 16;
+    private static final int PAYEES = 20;
+
+    @Param({"1", "100", "10000"})
+    int historySize;
+
+    private ProcessPaymentHandler handler;
+    private ProcessPaymentCommand replay;
+    private long sequence;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        InMemoryPaymentRepository repository = PaymentHistory.repository();
+        LocalDateTime now = LocalDateTime.now();
+        for (int payer = 0; payer < PAYERS; payer++) {
+            PaymentHistory.seed(repository, "payer-" + payer, historySize, PAYEES, now);
+        }
+
+        handler = ShellFixtures.handler(repository, PolicyConfiguration.defaultPolicy(), true);
+        replay = command("replay");
+        handler.handle(replay);
+    }
+
+    @Benchmark
+    public Payment handleNew() {
+        return handler.handle(command("bench-" + sequence++));
+    }
+
+    @Benchmark
+    public Payment handleDuplicate() {
+        return handler.handle(replay);
+    }
+
+    private ProcessPaymentCommand command(String idempotencyKey) {
+        int slot = (int) (sequence % PAYERS);
+        return new ProcessPaymentCommand(
+                idempotencyKey,
+                "payer-" + slot,
+                "payee-" + (sequence % PAYEES),
+                Money.ofMinor(100_00 + slot * 25_00, "BRL"),
+                "BRL",
+                "bench"
+        );
+    }
+}
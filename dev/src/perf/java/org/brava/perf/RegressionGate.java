@@ -0,0 +1,137 @@
+package org.brava.perf;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH CSV result against the committed baseline and exits non-zero when the
+ * primary score or the normalized allocation rate regressed beyond the tolerance.
+ */
+public final class RegressionGate {
+
+    private static final String ALLOCATION_METRIC = ":gc.alloc.rate.norm";
+    private static final double ALLOCATION_SLACK_BYTES = 16;
+
+    private RegressionGate() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: RegressionGate <results.csv> <baseline.csv> <tolerance> [record]");
+            System.exit(2);
+        }
+        Path results = Path.of(args[0]);
+        Path baseline = Path.of(args[1]);
+        double tolerance = Double.parseDouble(args[2]);
+        boolean record = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        if (record) {
+            Files.createDirectories(baseline.toAbsolutePath().getParent());
+            Files.copy(results, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline recorded at " + baseline);
+            return;
+        }
+        if (!Files.exists(baseline)) {
+            System.out.println("No baseline at " + baseline + ", skipping regression gate (run with -Dperf.record-baseline=true)");
+            return;
+        }
+
+        Map<String, Score> current = read(results);
+        Map<String, Score> reference = read(baseline);
+        List<String> regressions = new ArrayList<>();
+
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score before = reference.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("NEW   %s %.3f %s%n", entry.getKey(), entry.getValue().value(), entry.getValue().unit());
+                continue;
+            }
+            Score after = entry.getValue();
+            boolean regressed = after.isAllocation()
+                    ? after.value() > before.value() * (1 + tolerance) + ALLOCATION_SLACK_BYTES
+                    : after.isThroughput()
+                    ? after.value() < before.value() * (1 - tolerance)
+                    : after.value() > before.value() * (1 + tolerance);
+
+            String line = String.format("%s %.3f -> %.3f %s", entry.getKey(), before.value(), after.value(), after.unit());
+            System.out.println((regressed ? "FAIL  " : "OK    ") + line);
+            if (regressed) {
+                regressions.add(line);
+            }
+        }
+
+        if (!regressions.isEmpty()) {
+            System.err.printf("%d benchmark(s) regressed beyond %.0f%%%n", regressions.size(), tolerance * 100);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Score> read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        Map<String, Score> scores = new LinkedHashMap<>();
+        if (lines.isEmpty()) {
+            return scores;
+        }
+
+        List<String> header = columns(lines.get(0));
+        int benchmark = header.indexOf("Benchmark");
+        int mode = header.indexOf("Mode");
+        int score = header.indexOf("Score");
+        int unit = header.indexOf("Unit");
+
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> row = columns(line);
+            String name = row.get(benchmark);
+            boolean allocation = name.endsWith(ALLOCATION_METRIC);
+            if (name.contains(":") && !allocation) {
+                continue;
+            }
+
+            StringBuilder key = new StringBuilder(name).append(" [").append(row.get(mode));
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).startsWith("Param: ")) {
+                    key.append(", ").append(header.get(i).substring(7)).append('=').append(row.get(i));
+                }
+            }
+            key.append(']');
+
+            scores.put(key.toString(), new Score(Double.parseDouble(row.get(score)), row.get(unit), allocation));
+        }
+        return scores;
+    }
+
+    private static List<String> columns(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                columns.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        columns.add(current.toString());
+        return columns;
+    }
+
+    private record Score(double value, String unit, boolean isAllocation) {
+
+        boolean isThroughput() {
+            return unit.startsWith("ops/");
+        }
+    }
+}
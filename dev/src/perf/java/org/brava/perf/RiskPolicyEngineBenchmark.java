@@ -0,0 +1,57 @@
+package org.brava.perf;
+
+import org.brava.core.Money;
+import org.brava.core.Payment;
+import org.brava.core.RiskContext;
+import org.brava.infrastructure.memory.InMemoryPaymentRepository;
+import org.brava.shell.RiskPolicyEngine;
+import org.brava.shell.ShellFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RiskPolicyEngineBenchmark {
+
+    private static final int PAYEES = 20;
+
+    @Param({"1", "100", "10000"})
+    int historySize;
+
+    @Param({"aggregates", "repository"})
+    String source;
+
+    private RiskPolicyEngine engine;
+    private Payment payment;
+
+    @Setup
+    public void setup() {
+        InMemoryPaymentRepository repository = PaymentHistory.repository();
+        PaymentHistory.seed(repository, "payer-1", historySize, PAYEES, LocalDateTime.now());
+
+        engine = ShellFixtures.riskEngine(repository, ShellFixtures.aggregates(repository, source.equals("aggregates")),
+                ShellFixtures.velocity(repository));
+        payment = Payment.createPending("bench-1", "payer-1", "payee-1", Money.ofMinor(250_00, "BRL"), "BRL", "bench");
+    }
+
+    @Benchmark
+    public RiskContext buildContext() {
+        return engine.buildContext(payment);
+    }
+}
@@ -0,0 +1,179 @@
+package org.brava.perf.backtest;
+
+import org.brava.core.Payment;
+import org.brava.core.PaymentDecision;
+import org.brava.core.RiskAggregates;
+import org.brava.core.policies.PaymentPolicy;
+import org.brava.core.sketch.VelocitySketches;
+import org.brava.infrastructure.config.PolicyConfiguration;
+import org.brava.infrastructure.config.RiskRules;
+
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Replays stored payments through a candidate policy chain and reports where its decisions
+ * differ from the recorded ones. Payers are split into partitions that replay in parallel on
+ * a fork-join pool while the next chunk is read from the database.
+ */
+public final class Backtest {
+
+    private static final String HEADER = "created_at,payment_id,payer_id,payee_id,amount,currency,"
+            + "recorded_status,recorded_message,candidate_status,candidate_reason";
+
+    // Same total as the service defaults, split across partitions since each sees only its payers
+    private static final int DISTINCT_PAYEE_REGISTERS = 1 << 22;
+    private static final int PAIR_COUNTERS = 1 << 18;
+
+    private Backtest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        BacktestOptions options = BacktestOptions.parse(args);
+        PaymentPolicy candidate = options.rules() != null
+                ? RiskRules.load(options.rules())
+                : PolicyConfiguration.defaultPolicy();
+
+        System.out.printf("Replaying %s .. %s against %s - Partitions: %d, Chunk: %d%n",
+                options.from(), options.to(), options.rules() != null ? options.rules() : "built-in rules",
+                options.partitions(), options.chunkSize());
+
+        ReplayPartition[] partitions = new ReplayPartition[options.partitions()];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new ReplayPartition(candidate, options.from(), new VelocitySketches(
+                    options.velocityWindow(), 4, share(DISTINCT_PAYEE_REGISTERS, partitions.length, 1 << 14),
+                    share(PAIR_COUNTERS, partitions.length, 1 << 10)));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(options.partitions());
+        long start = System.nanoTime();
+        long readNanos = 0;
+        long waitNanos = 0;
+        long rows = 0;
+        long divergences = 0;
+        Files.createDirectories(options.output().toAbsolutePath().getParent());
+        // Start one payer window early so the first compared payments see their full history
+        try (HistoryCursor cursor = new HistoryCursor(options,
+                options.from().minusDays(RiskAggregates.PAYER_WINDOW_DAYS), options.chunkSize());
+             PrintWriter out = new PrintWriter(Files.newBufferedWriter(options.output()))) {
+            out.println(HEADER);
+
+            long readStart = System.nanoTime();
+            List<Payment> chunk = cursor.next(options.chunkSize());
+            readNanos += System.nanoTime() - readStart;
+            while (!chunk.isEmpty()) {
+                rows += chunk.size();
+                List<ForkJoinTask<List<ReplayPartition.Divergence>>> tasks = submit(pool, partitions, chunk);
+
+                readStart = System.nanoTime();
+                chunk = cursor.next(options.chunkSize());
+                readNanos += System.nanoTime() - readStart;
+
+                long waitStart = System.nanoTime();
+                for (ForkJoinTask<List<ReplayPartition.Divergence>> task : tasks) {
+                    for (ReplayPartition.Divergence divergence : task.join()) {
+                        out.println(format(divergence));
+                        divergences++;
+                    }
+                }
+                waitNanos += System.nanoTime() - waitStart;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        report(partitions, rows, divergences, System.nanoTime() - start, readNanos, waitNanos, options);
+    }
+
+    private static List<ForkJoinTask<List<ReplayPartition.Divergence>>> submit(
+            ForkJoinPool pool, ReplayPartition[] partitions, List<Payment> chunk) {
+        List<List<Payment>> split = new ArrayList<>(partitions.length);
+        for (int i = 0; i < partitions.length; i++) {
+            split.add(new ArrayList<>(chunk.size() / partitions.length + 16));
+        }
+        for (Payment payment : chunk) {
+            split.get(partitionOf(payment.payerId(), partitions.length)).add(payment);
+        }
+
+        List<ForkJoinTask<List<ReplayPartition.Divergence>>> tasks = new ArrayList<>(partitions.length);
+        for (int i = 0; i < partitions.length; i++) {
+            List<Payment> payments = split.get(i);
+            if (!payments.isEmpty()) {
+                ReplayPartition partition = partitions[i];
+                tasks.add(pool.submit(() -> partition.replay(payments)));
+            }
+        }
+        return tasks;
+    }
+
+    private static int share(int total, int partitions, int minimum) {
+        return Math.max(minimum, Integer.highestOneBit(total / partitions));
+    }
+
+    private static int partitionOf(String payerId, int partitions) {
+        int hash = payerId.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), partitions);
+    }
+
+    private static void report(ReplayPartition[] partitions, long rows, long divergences, long elapsedNanos,
+                               long readNanos, long waitNanos, BacktestOptions options) {
+        long warmup = 0;
+        long undecided = 0;
+        long approvedKept = 0;
+        long approvedNowDeclined = 0;
+        long declinedNowApproved = 0;
+        long declinedKept = 0;
+        long busyNanos = 0;
+        for (ReplayPartition partition : partitions) {
+            warmup += partition.warmup;
+            undecided += partition.undecided;
+            approvedKept += partition.approvedKept;
+            approvedNowDeclined += partition.approvedNowDeclined;
+            declinedNowApproved += partition.declinedNowApproved;
+            declinedKept += partition.declinedKept;
+            busyNanos += partition.busyNanos;
+        }
+        long compared = approvedKept + approvedNowDeclined + declinedNowApproved + declinedKept;
+        double seconds = elapsedNanos / 1e9;
+
+        System.out.printf("Rows read: %d (warm-up: %d, not decided: %d), compared: %d%n",
+                rows, warmup, undecided, compared);
+        System.out.printf("  APPROVED -> APPROVED: %d%n", approvedKept);
+        System.out.printf("  APPROVED -> DECLINED: %d%n", approvedNowDeclined);
+        System.out.printf("  DECLINED -> APPROVED: %d%n", declinedNowApproved);
+        System.out.printf("  DECLINED -> DECLINED: %d%n", declinedKept);
+        System.out.printf("Divergence: %.3f%% (%d rows written to %s)%n",
+                compared > 0 ? 100.0 * divergences / compared : 0.0, divergences, options.output());
+        System.out.printf("Elapsed: %.1f s, %.0f rows/s - Reading: %.1f s, waiting on replay: %.1f s, "
+                        + "replay busy: %.1f s over %d partitions%n",
+                seconds, rows / seconds, readNanos / 1e9, waitNanos / 1e9, busyNanos / 1e9, partitions.length);
+    }
+
+    private static String format(ReplayPartition.Divergence divergence) {
+        Payment payment = divergence.payment();
+        PaymentDecision candidate = divergence.candidate();
+        String reason = switch (candidate) {
+            case PaymentDecision.Approved approved -> approved.reason();
+            case PaymentDecision.Declined declined -> declined.reason();
+        };
+        return String.join(",",
+                payment.createdAt().toString(),
+                Long.toString(payment.id()),
+                payment.payerId(),
+                payment.payeeId(),
+                payment.amount().toBigDecimal().toPlainString(),
+                payment.currency(),
+                payment.status().name(),
+                quote(payment.message()),
+                candidate.isApproved() ? "APPROVED" : "DECLINED",
+                quote(reason));
+    }
+
+    private static String quote(String value) {
+        return value == null ? "" : '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
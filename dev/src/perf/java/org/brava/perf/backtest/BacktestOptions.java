@@ -0,0 +1,58 @@
+package org.brava.perf.backtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+record BacktestOptions(
+        String jdbcUrl,
+        String username,
+        String password,
+        LocalDateTime from,
+        LocalDateTime to,
+        Path rules,
+        int partitions,
+        int chunkSize,
+        Duration velocityWindow,
+        Path output
+) {
+
+    static BacktestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int split = arg.indexOf('=');
+            values.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+
+        LocalDateTime to = values.containsKey("to") ? dateTime(values.get("to")) : LocalDateTime.now();
+        String rules = values.get("rules");
+        return new BacktestOptions(
+                values.getOrDefault("url", env("QUARKUS_DATASOURCE_JDBC_URL", "jdbc:postgresql://localhost:5432/payment_db")),
+                values.getOrDefault("user", env("QUARKUS_DATASOURCE_USERNAME", "postgres")),
+                values.getOrDefault("password", env("QUARKUS_DATASOURCE_PASSWORD", "postgres")),
+                values.containsKey("from") ? dateTime(values.get("from")) : to.minusDays(90),
+                to,
+                rules != null ? Path.of(rules) : null,
+                Integer.parseInt(values.getOrDefault("partitions",
+                        String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                Integer.parseInt(values.getOrDefault("chunk-size", "10000")),
+                Duration.parse("PT" + values.getOrDefault("velocity-window", "1h")),
+                Path.of(values.getOrDefault("out", "target/backtest-diff.csv"))
+        );
+    }
+
+    private static LocalDateTime dateTime(String value) {
+        return value.contains("T") ? LocalDateTime.parse(value) : LocalDate.parse(value).atStartOfDay();
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value != null ? value : fallback;
+    }
+}
@@ -0,0 +1,60 @@
+package org.brava.perf.backtest;
+
+import org.brava.core.Money;
+import org.brava.core.Payment;
+import org.brava.core.PaymentStatus;
+import org.brava.core.RiskAggregates;
+import org.brava.core.RiskStats;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Risk windows computed the way {@code findRiskStats} does, over the exact
+ * {@code created_at > asOf - window} range instead of {@link RiskAggregates}' daily buckets,
+ * so a replayed payment near a window edge sees the same history the database query returns.
+ * Payments must be recorded in {@code created_at} order; each payer keeps the last 30 days.
+ */
+final class ExactRiskWindows {
+
+    private final Map<String, ArrayDeque<Payment>> payers = new HashMap<>();
+
+    void record(Payment payment) {
+        payers.computeIfAbsent(payment.payerId(), payerId -> new ArrayDeque<>()).addLast(payment);
+    }
+
+    RiskStats stats(String payerId, String payeeId, LocalDateTime asOf) {
+        ArrayDeque<Payment> history = payers.get(payerId);
+        if (history == null) {
+            return RiskStats.EMPTY;
+        }
+        LocalDateTime payerStart = asOf.minusDays(RiskAggregates.PAYER_WINDOW_DAYS);
+        LocalDateTime pairStart = asOf.minusDays(RiskAggregates.PAIR_WINDOW_DAYS);
+        while (!history.isEmpty() && !history.peekFirst().createdAt().isAfter(payerStart)) {
+            history.removeFirst();
+        }
+
+        int approvedCount = 0;
+        long approvedAmount = 0;
+        int toSamePayee = 0;
+        LocalDateTime lastToSamePayee = null;
+        for (Payment payment : history) {
+            if (payment.status() == PaymentStatus.APPROVED) {
+                approvedCount++;
+                approvedAmount += payment.amount().toMinor(Money.STORAGE_SCALE);
+            }
+            if (payment.payeeId().equals(payeeId) && payment.createdAt().isAfter(pairStart)) {
+                toSamePayee++;
+                lastToSamePayee = payment.createdAt();
+            }
+        }
+        return new RiskStats(approvedCount, approvedAmount, history.size(), toSamePayee, lastToSamePayee);
+    }
+
+    void evictIdle(LocalDateTime asOf) {
+        LocalDateTime payerStart = asOf.minusDays(RiskAggregates.PAYER_WINDOW_DAYS);
+        payers.values().removeIf(history -> history.isEmpty() || !history.peekLast().createdAt().isAfter(payerStart));
+    }
+}
@@ -0,0 +1,81 @@
+package org.brava.perf.backtest;
+
+import org.brava.core.Money;
+import org.brava.core.Payment;
+import org.brava.core.PaymentStatus;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads payments in (created_at, id) order through a server-side cursor, so only one fetch
+ * of rows is held by the driver at a time.
+ */
+final class HistoryCursor implements AutoCloseable {
+
+    private static final String QUERY = """
+            SELECT id, idempotency_key, transaction_id, payer_id, payee_id, amount, currency,
+                   status, message, created_at, updated_at
+            FROM payments
+            WHERE created_at >= ? AND created_at < ?
+            ORDER BY created_at, id""";
+
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet rows;
+
+    HistoryCursor(BacktestOptions options, LocalDateTime from, int fetchSize) throws SQLException {
+        connection = DriverManager.getConnection(options.jdbcUrl(), options.username(), options.password());
+        try {
+            // PostgreSQL only streams with a fetch size inside a transaction
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            statement = connection.prepareStatement(QUERY, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            statement.setTimestamp(2, Timestamp.valueOf(options.to()));
+            rows = statement.executeQuery();
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    List<Payment> next(int max) throws SQLException {
+        List<Payment> chunk = new ArrayList<>(max);
+        while (chunk.size() < max && rows.next()) {
+            String currency = rows.getString("currency");
+            chunk.add(new Payment(
+                    rows.getLong("id"),
+                    rows.getString("idempotency_key"),
+                    rows.getString("payer_id"),
+                    rows.getString("payee_id"),
+                    Money.of(rows.getBigDecimal("amount"), currency),
+                    currency,
+                    null,
+                    PaymentStatus.valueOf(rows.getString("status")),
+                    rows.getString("transaction_id"),
+                    rows.getString("message"),
+                    rows.getTimestamp("created_at").toLocalDateTime(),
+                    rows.getTimestamp("updated_at").toLocalDateTime()
+            ));
+        }
+        return chunk;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            connection.rollback();
+        } finally {
+            connection.close();
+        }
+    }
+}
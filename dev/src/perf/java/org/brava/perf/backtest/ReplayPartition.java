@@ -0,0 +1,88 @@
+package org.brava.perf.backtest;
+
+import org.brava.core.Payment;
+import org.brava.core.PaymentDecision;
+import org.brava.core.PaymentStatus;
+import org.brava.core.RiskContext;
+import org.brava.core.policies.PaymentPolicy;
+import org.brava.core.sketch.VelocitySketches;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replays the payers of one partition in created_at order. Each payment is evaluated against
+ * the exact risk windows of the payments before it, then recorded with its stored status, so
+ * the history stays the one that actually happened.
+ */
+final class ReplayPartition {
+
+    record Divergence(Payment payment, PaymentDecision candidate) {
+    }
+
+    private final PaymentPolicy candidate;
+    private final LocalDateTime compareFrom;
+    private final ExactRiskWindows windows = new ExactRiskWindows();
+    private final VelocitySketches velocity;
+    private long lastEvictionDay = Long.MIN_VALUE;
+
+    long warmup;
+    long undecided;
+    long approvedKept;
+    long approvedNowDeclined;
+    long declinedNowApproved;
+    long declinedKept;
+    long busyNanos;
+
+    ReplayPartition(PaymentPolicy candidate, LocalDateTime compareFrom, VelocitySketches velocity) {
+        this.candidate = candidate;
+        this.compareFrom = compareFrom;
+        this.velocity = velocity;
+    }
+
+    List<Divergence> replay(List<Payment> payments) {
+        long start = System.nanoTime();
+        List<Divergence> divergences = new ArrayList<>();
+        for (Payment payment : payments) {
+            LocalDateTime asOf = payment.createdAt();
+            if (asOf.isBefore(compareFrom)) {
+                warmup++;
+            } else if (payment.status() != PaymentStatus.APPROVED && payment.status() != PaymentStatus.DECLINED) {
+                undecided++;
+            } else {
+                RiskContext context = RiskContext.of(
+                        payment,
+                        windows.stats(payment.payerId(), payment.payeeId(), asOf),
+                        velocity.stats(payment.payerId(), payment.payeeId(), asOf),
+                        asOf);
+                PaymentDecision decision = candidate.evaluate(context);
+                boolean wasApproved = payment.status() == PaymentStatus.APPROVED;
+                if (wasApproved == decision.isApproved()) {
+                    if (wasApproved) {
+                        approvedKept++;
+                    } else {
+                        declinedKept++;
+                    }
+                } else {
+                    if (wasApproved) {
+                        approvedNowDeclined++;
+                    } else {
+                        declinedNowApproved++;
+                    }
+                    divergences.add(new Divergence(payment, decision));
+                }
+            }
+
+            windows.record(payment);
+            velocity.record(payment);
+            long day = asOf.toLocalDate().toEpochDay();
+            if (day > lastEvictionDay) {
+                windows.evictIdle(asOf);
+                lastEvictionDay = day;
+            }
+        }
+        busyNanos += System.nanoTime() - start;
+        return divergences;
+    }
+}
@@ -0,0 +1,126 @@
+package org.brava.perf.load;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import org.HdrHistogram.Histogram;
+import org.brava.infrastructure.grpc.PaymentServiceGrpc;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Launches the packaged application once per {@code payment.processing.executor} mode and
+ * drives each with the same open-loop load, then prints p50 and p99 side by side. Every mode
+ * gets its own run id, so idempotency keys from an earlier mode are not answered from cache.
+ */
+public final class ExecutorComparison {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private ExecutorComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        Map<String, String> extra = extraOptions(args);
+        List<String> modes = Arrays.asList(extra.getOrDefault("modes", "worker,virtual").split(","));
+        String javaOpts = extra.getOrDefault("java-opts", "");
+        int httpPort = Integer.parseInt(extra.getOrDefault("http-port", "8080"));
+        Duration maxWait = Duration.parse("PT" + extra.getOrDefault("max-wait", "120s"));
+        Path report = Path.of(extra.getOrDefault("report", "target/executor-comparison.csv"));
+
+        Map<String, Map<String, Histogram>> results = new LinkedHashMap<>();
+        for (String mode : modes) {
+            System.out.printf("Mode %s - Rate: %.0f/s, Warmup: %s, Duration: %s%n",
+                    mode, options.rate(), options.warmup(), options.duration());
+            results.put(mode, run(options.withRunId(options.runId() + "-" + mode), mode, javaOpts, httpPort, maxWait,
+                    extra.getOrDefault("jar", "target/quarkus-app/quarkus-run.jar")));
+        }
+
+        double seconds = options.duration().toNanos() / 1e9;
+        List<String> rows = new ArrayList<>();
+        rows.add("mode,status,count,throughput_per_sec,p50_ms,p99_ms");
+        System.out.printf("%-12s %-24s %10s %10s %10s %10s%n", "mode", "status", "count", "rate/s", "p50 ms", "p99 ms");
+        results.forEach((mode, histograms) -> histograms.forEach((status, h) -> {
+            double p50 = h.getValueAtPercentile(50) / NANOS_PER_MILLI;
+            double p99 = h.getValueAtPercentile(99) / NANOS_PER_MILLI;
+            System.out.printf(Locale.ROOT, "%-12s %-24s %10d %10.1f %10.3f %10.3f%n",
+                    mode, status, h.getTotalCount(), h.getTotalCount() / seconds, p50, p99);
+            rows.add(String.format(Locale.ROOT, "%s,%s,%d,%.1f,%.3f,%.3f",
+                    mode, status, h.getTotalCount(), h.getTotalCount() / seconds, p50, p99));
+        }));
+
+        String reference = modes.get(0);
+        Histogram baseline = results.get(reference).get(LatencyReport.ALL);
+        for (String mode : modes.subList(1, modes.size())) {
+            Histogram all = results.get(mode).get(LatencyReport.ALL);
+            System.out.printf(Locale.ROOT, "%s vs %s: p50 %+.1f%%, p99 %+.1f%%%n", mode, reference,
+                    change(baseline.getValueAtPercentile(50), all.getValueAtPercentile(50)),
+                    change(baseline.getValueAtPercentile(99), all.getValueAtPercentile(99)));
+        }
+
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        Files.write(report, rows);
+    }
+
+    private static Map<String, Histogram> run(LoadOptions options, String mode, String javaOpts, int httpPort,
+                                              Duration maxWait, String jar) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Dpayment.transaction-id.node-id=0");
+        if (!javaOpts.isBlank()) {
+            command.addAll(Arrays.asList(javaOpts.strip().split("\\s+")));
+        }
+        command.add("-Dpayment.processing.executor=" + mode);
+        command.add("-Dquarkus.grpc.server.port=" + options.port());
+        command.add("-Dquarkus.http.port=" + httpPort);
+        command.add("-jar");
+        command.add(jar);
+
+        PaymentTraffic traffic = new PaymentTraffic(options);
+        LatencyReport report = new LatencyReport();
+        ManagedChannel channel = ManagedChannelBuilder.forAddress(options.host(), options.port())
+                .usePlaintext()
+                .build();
+        Process app = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File("target/executor-" + mode + "-app.log"))
+                .start();
+        try {
+            StartupBenchmark.awaitStartup(options, httpPort, maxWait, traffic, PaymentServiceGrpc.newBlockingStub(channel));
+            LoadGenerator.run(options, traffic, report, PaymentServiceGrpc.newStub(channel));
+            return report.snapshot();
+        } finally {
+            channel.shutdownNow().awaitTermination(10, TimeUnit.SECONDS);
+            app.destroy();
+            if (!app.waitFor(30, TimeUnit.SECONDS)) {
+                app.destroyForcibly();
+            }
+        }
+    }
+
+    private static double change(long before, long after) {
+        return before == 0 ? 0 : (after - before) * 100.0 / before;
+    }
+
+    private static Map<String, String> extraOptions(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (arg.startsWith("--") && split > 0) {
+                values.put(arg.substring(2, split), arg.substring(split + 1));
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,107 @@
+package org.brava.perf.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latencies per response status, measured from each request's intended send time so that
+ * queueing behind a slow response is not hidden (coordinated omission).
+ */
+final class LatencyReport {
+
+    static final String ALL = "ALL";
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final String HEADER = "status,count,throughput_per_sec,p50_ms,p90_ms,p99_ms,p99_9_ms,max_ms";
+
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+
+    void record(String status, long latencyNanos) {
+        recorders.computeIfAbsent(status, s -> new Recorder(SIGNIFICANT_DIGITS)).recordValue(latencyNanos);
+    }
+
+    Map<String, Histogram> snapshot() {
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        Histogram all = new Histogram(SIGNIFICANT_DIGITS);
+        recorders.keySet().stream().sorted().forEach(status -> {
+            Histogram histogram = recorders.get(status).getIntervalHistogram();
+            histograms.put(status, histogram);
+            all.add(histogram);
+        });
+        histograms.put(ALL, all);
+        return histograms;
+    }
+
+    static List<String> rows(Map<String, Histogram> histograms, double seconds) {
+        List<String> rows = new ArrayList<>();
+        rows.add(HEADER);
+        histograms.forEach((status, h) -> rows.add(String.format(Locale.ROOT,
+                "%s,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f",
+                status,
+                h.getTotalCount(),
+                h.getTotalCount() / seconds,
+                millis(h.getValueAtPercentile(50)),
+                millis(h.getValueAtPercentile(90)),
+                millis(h.getValueAtPercentile(99)),
+                millis(h.getValueAtPercentile(99.9)),
+                millis(h.getMaxValue()))));
+        return rows;
+    }
+
+    static void write(Map<String, Histogram> histograms, double seconds, Path output) throws IOException {
+        Path directory = output.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Files.write(output, rows(histograms, seconds));
+
+        String prefix = output.getFileName().toString().replaceFirst("\\.csv$", "");
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(prefix + "-" + entry.getKey() + ".hgrm")))) {
+                entry.getValue().outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+    }
+
+    static void compare(List<String> current, Path baseline, PrintStream out) throws IOException {
+        Map<String, String[]> before = new HashMap<>();
+        List<String> lines = Files.readAllLines(baseline);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] columns = line.split(",");
+            before.put(columns[0], columns);
+        }
+        String[] names = HEADER.split(",");
+
+        out.println("Compared with " + baseline);
+        for (String line : current.subList(1, current.size())) {
+            String[] after = line.split(",");
+            String[] reference = before.get(after[0]);
+            if (reference == null) {
+                out.printf("  %-10s (not in baseline)%n", after[0]);
+                continue;
+            }
+            StringBuilder deltas = new StringBuilder();
+            for (int i = 2; i < names.length; i++) {
+                double was = Double.parseDouble(reference[i]);
+                double now = Double.parseDouble(after[i]);
+                deltas.append(String.format(Locale.ROOT, " %s %+.1f%%", names[i], was == 0 ? 0 : (now - was) * 100 / was));
+            }
+            out.printf("  %-10s%s%n", after[0], deltas);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,114 @@
+package org.brava.perf.load;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.HdrHistogram.Histogram;
+import org.brava.infrastructure.grpc.PaymentRequest;
+import org.brava.infrastructure.grpc.PaymentResponse;
+import org.brava.infrastructure.grpc.PaymentServiceGrpc;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load against PaymentService.ProcessPayment: requests are scheduled at a fixed
+ * arrival rate regardless of how fast responses come back.
+ */
+public final class LoadGenerator {
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        PaymentTraffic traffic = new PaymentTraffic(options);
+        LatencyReport report = new LatencyReport();
+
+        System.out.printf("Target %s:%d - Rate: %.0f/s, Warmup: %s, Duration: %s%n",
+                options.host(), options.port(), options.rate(), options.warmup(), options.duration());
+
+        ManagedChannel channel = ManagedChannelBuilder.forAddress(options.host(), options.port())
+                .usePlaintext()
+                .build();
+        try {
+            long maxLagNanos = run(options, traffic, report, PaymentServiceGrpc.newStub(channel));
+
+            double seconds = options.duration().toNanos() / 1e9;
+            Map<String, Histogram> histograms = report.snapshot();
+            List<String> rows = LatencyReport.rows(histograms, seconds);
+            LatencyReport.write(histograms, seconds, options.output());
+
+            rows.forEach(System.out::println);
+            System.out.printf("Max sender lag: %.3f ms%n", maxLagNanos / 1e6);
+            if (options.baseline() != null) {
+                LatencyReport.compare(rows, options.baseline(), System.out);
+            }
+        } finally {
+            channel.shutdown().awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    static long run(LoadOptions options, PaymentTraffic traffic, LatencyReport report,
+                            PaymentServiceGrpc.PaymentServiceStub stub) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        double intervalNanos = 1e9 / options.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        long maxLag = 0;
+
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            PaymentRequest request = traffic.next();
+            inFlight.acquireUninterruptibly();
+            maxLag = Math.max(maxLag, System.nanoTime() - intended);
+
+            boolean measured = intended >= measureFrom;
+            stub.withDeadlineAfter(options.timeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .processPayment(request, new StreamObserver<>() {
+                        private String status = "EMPTY";
+
+                        @Override
+                        public void onNext(PaymentResponse response) {
+                            status = response.getStatus();
+                        }
+
+                        @Override
+                        public void onError(Throwable t) {
+                            complete("ERROR_" + Status.fromThrowable(t).getCode());
+                        }
+
+                        @Override
+                        public void onCompleted() {
+                            complete(status);
+                        }
+
+                        private void complete(String outcome) {
+                            if (measured) {
+                                // Measured from the intended send time, not from when the call went out
+                                report.record(outcome, System.nanoTime() - intended);
+                            }
+                            inFlight.release();
+                        }
+                    });
+        }
+
+        if (!inFlight.tryAcquire(options.maxInFlight(), options.timeout().toMillis() * 2, TimeUnit.MILLISECONDS)) {
+            System.err.printf("%d requests still in flight at shutdown%n", options.maxInFlight() - inFlight.availablePermits());
+        }
+        return maxLag;
+    }
+}
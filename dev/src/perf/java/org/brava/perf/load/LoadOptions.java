@@ -0,0 +1,103 @@
+package org.brava.perf.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+record LoadOptions(
+        String host,
+        int port,
+        double rate,
+        Duration warmup,
+        Duration duration,
+        Duration timeout,
+        int maxInFlight,
+        int payers,
+        double payerSkew,
+        int payees,
+        double payeeSkew,
+        double duplicateRatio,
+        long minAmountMinor,
+        long maxAmountMinor,
+        String currency,
+        long seed,
+        String runId,
+        Path output,
+        Path baseline
+) {
+
+    private static final String GRPC_PORT_PROPERTY = "quarkus.grpc.server.port";
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^:}]+)(?::([^}]*))?}");
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int split = arg.indexOf('=');
+            values.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+
+        String baseline = values.get("baseline");
+        String payerSkew = values.getOrDefault("payer-skew", "1.1");
+        return new LoadOptions(
+                values.getOrDefault("host", "localhost"),
+                Integer.parseInt(values.getOrDefault("port", String.valueOf(configuredPort()))),
+                Double.parseDouble(values.getOrDefault("rate", "1000")),
+                Duration.parse("PT" + values.getOrDefault("warmup", "10s")),
+                Duration.parse("PT" + values.getOrDefault("duration", "60s")),
+                Duration.parse("PT" + values.getOrDefault("timeout", "5s")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "10000")),
+                Integer.parseInt(values.getOrDefault("payers", "100000")),
+                Double.parseDouble(payerSkew),
+                Integer.parseInt(values.getOrDefault("payees", "1000")),
+                Double.parseDouble(values.getOrDefault("payee-skew", payerSkew)),
+                Double.parseDouble(values.getOrDefault("duplicates", "0.02")),
+                Long.parseLong(values.getOrDefault("min-amount-minor", "100")),
+                Long.parseLong(values.getOrDefault("max-amount-minor", "2000000")),
+                values.getOrDefault("currency", "BRL"),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                values.getOrDefault("run-id", Long.toString(System.currentTimeMillis(), 36)),
+                Path.of(values.getOrDefault("out", "target/load-report.csv")),
+                baseline != null ? Path.of(baseline) : null
+        );
+    }
+
+    LoadOptions withRunId(String runId) {
+        return new LoadOptions(host, port, rate, warmup, duration, timeout, maxInFlight, payers, payerSkew, payees,
+                payeeSkew, duplicateRatio, minAmountMinor, maxAmountMinor, currency, seed, runId, output, baseline);
+    }
+
+    private static int configuredPort() {
+        Properties properties = new Properties();
+        try (InputStream in = LoadOptions.class.getClassLoader().getResourceAsStream("application.properties")) {
+            if (in == null) {
+                return 9000;
+            }
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Integer.parseInt(resolve(properties.getProperty(GRPC_PORT_PROPERTY, "9000")));
+    }
+
+    private static String resolve(String value) {
+        Matcher matcher = PLACEHOLDER.matcher(value);
+        StringBuilder resolved = new StringBuilder();
+        while (matcher.find()) {
+            String env = System.getenv(matcher.group(1));
+            String replacement = env != null ? env : matcher.group(2) != null ? matcher.group(2) : "";
+            matcher.appendReplacement(resolved, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(resolved);
+        return resolved.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package org.brava.perf.load;
+
+import org.brava.infrastructure.grpc.PaymentRequest;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic request sequence for a seed: Zipf-distributed payers and payees, log-uniform
+ * amounts, and a share of retries that resend a recent request with the same idempotency key.
+ * Only the sender thread calls {@link #next()}.
+ */
+final class PaymentTraffic {
+
+    private static final int RETRY_WINDOW = 1024;
+
+    private final LoadOptions options;
+    private final SplittableRandom random;
+    private final double[] payerCdf;
+    private final double[] payeeCdf;
+    private final PaymentRequest[] recent = new PaymentRequest[RETRY_WINDOW];
+    private final double logMinAmount;
+    private final double logAmountRange;
+    private long sequence;
+
+    PaymentTraffic(LoadOptions options) {
+        this.options = options;
+        this.random = new SplittableRandom(options.seed());
+        this.payerCdf = zipfCdf(options.payers(), options.payerSkew());
+        this.payeeCdf = zipfCdf(options.payees(), options.payeeSkew());
+        this.logMinAmount = Math.log(options.minAmountMinor());
+        this.logAmountRange = Math.log(options.maxAmountMinor()) - logMinAmount;
+    }
+
+    PaymentRequest next() {
+        if (sequence > 0 && random.nextDouble() < options.duplicateRatio()) {
+            return recent[random.nextInt((int) Math.min(sequence, RETRY_WINDOW))];
+        }
+
+        long amountMinor = Math.round(Math.exp(logMinAmount + random.nextDouble() * logAmountRange));
+        PaymentRequest request = PaymentRequest.newBuilder()
+                .setIdempotencyKey("load-" + options.runId() + "-" + sequence)
+                .setPayerId("payer-" + sample(payerCdf))
+                .setPayeeId("payee-" + sample(payeeCdf))
+                .setAmountMinor(amountMinor)
+                .setAmount(amountMinor / 100.0)
+                .setCurrency(options.currency())
+                .setDescription("load test")
+                .build();
+
+        recent[(int) (sequence % RETRY_WINDOW)] = request;
+        sequence++;
+        return request;
+    }
+
+    private int sample(double[] cdf) {
+        double u = random.nextDouble();
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double[] zipfCdf(int size, double skew) {
+        double[] cdf = new double[size];
+        double total = 0;
+        for (int rank = 0; rank < size; rank++) {
+            total += 1.0 / Math.pow(rank + 1, skew);
+            cdf[rank] = total;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cdf[rank] /= total;
+        }
+        return cdf;
+    }
+}
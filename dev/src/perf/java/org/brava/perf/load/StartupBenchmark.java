@@ -0,0 +1,234 @@
+package org.brava.perf.load;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.brava.infrastructure.grpc.PaymentRequest;
+import org.brava.infrastructure.grpc.PaymentResponse;
+import org.brava.infrastructure.grpc.PaymentServiceGrpc;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Launches the packaged application and measures how long a fresh instance takes to answer
+ * its first payment, to report ready, and to settle at its steady-state p99 under an
+ * open-loop rate. Run it with and without the AppCDS archive to compare.
+ */
+public final class StartupBenchmark {
+
+    private static final String HEADER = "label,java_opts,first_response_ms,ready_ms,steady_p99_ms,time_to_steady_p99_ms";
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        Map<String, String> extra = extraOptions(args);
+        String javaOpts = extra.getOrDefault("java-opts", "");
+        int httpPort = Integer.parseInt(extra.getOrDefault("http-port", "8080"));
+        Duration window = Duration.parse("PT" + extra.getOrDefault("window", "1s"));
+        double tolerance = Double.parseDouble(extra.getOrDefault("steady-tolerance", "0.2"));
+        Duration maxWait = Duration.parse("PT" + extra.getOrDefault("max-wait", "120s"));
+        Path report = Path.of(extra.getOrDefault("report", "target/startup-report.csv"));
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        // Single instance: any node id will do, --java-opts can still override it
+        command.add("-Dpayment.transaction-id.node-id=0");
+        if (!javaOpts.isBlank()) {
+            command.addAll(Arrays.asList(javaOpts.strip().split("\\s+")));
+        }
+        command.add("-Dquarkus.grpc.server.port=" + options.port());
+        command.add("-Dquarkus.http.port=" + httpPort);
+        command.add("-jar");
+        command.add(extra.getOrDefault("jar", "target/quarkus-app/quarkus-run.jar"));
+
+        PaymentTraffic traffic = new PaymentTraffic(options);
+        ManagedChannel channel = ManagedChannelBuilder.forAddress(options.host(), options.port())
+                .usePlaintext()
+                .build();
+        System.out.printf("Launching %s%n", String.join(" ", command));
+        long launched = System.nanoTime();
+        Process app = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File("target/startup-app.log"))
+                .start();
+        try {
+            long[] startup = awaitStartup(options, httpPort, maxWait, traffic, PaymentServiceGrpc.newBlockingStub(channel));
+            long firstResponseNanos = startup[0] - launched;
+            long readyNanos = startup[1] - launched;
+
+            long loadStart = System.nanoTime();
+            Recorder[] windows = run(options, traffic, window, PaymentServiceGrpc.newStub(channel));
+
+            long[] p99 = new long[windows.length];
+            Histogram tail = new Histogram(3);
+            for (int w = 0; w < windows.length; w++) {
+                Histogram histogram = windows[w].getIntervalHistogram();
+                p99[w] = histogram.getValueAtPercentile(99.0);
+                if (w >= windows.length * 2 / 3) {
+                    tail.add(histogram);
+                }
+            }
+            long steadyP99 = tail.getValueAtPercentile(99.0);
+            int settled = windows.length;
+            while (settled > 0 && p99[settled - 1] <= steadyP99 * (1 + tolerance)) {
+                settled--;
+            }
+            long toSteadyNanos = loadStart - launched + settled * window.toNanos();
+
+            StringBuilder series = new StringBuilder();
+            for (long value : p99) {
+                series.append(String.format(" %.1f", value / NANOS_PER_MILLI));
+            }
+            System.out.printf("p99 per %s window (ms):%s%n", window, series);
+            System.out.printf("First response: %.0f ms, ready: %.0f ms, steady p99: %.2f ms, reached after %.0f ms%n",
+                    firstResponseNanos / NANOS_PER_MILLI, readyNanos / NANOS_PER_MILLI,
+                    steadyP99 / NANOS_PER_MILLI, toSteadyNanos / NANOS_PER_MILLI);
+
+            boolean header = !Files.exists(report);
+            Files.createDirectories(report.toAbsolutePath().getParent());
+            String row = String.join(",",
+                    extra.getOrDefault("label", "default"),
+                    '"' + javaOpts + '"',
+                    String.format("%.0f", firstResponseNanos / NANOS_PER_MILLI),
+                    String.format("%.0f", readyNanos / NANOS_PER_MILLI),
+                    String.format("%.3f", steadyP99 / NANOS_PER_MILLI),
+                    String.format("%.0f", toSteadyNanos / NANOS_PER_MILLI));
+            Files.write(report, header ? List.of(HEADER, row) : List.of(row),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } finally {
+            channel.shutdownNow().awaitTermination(10, TimeUnit.SECONDS);
+            app.destroy();
+            if (!app.waitFor(30, TimeUnit.SECONDS)) {
+                app.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * Polls until a payment gets an answer and the readiness check reports UP, returning the
+     * {@code nanoTime} of each.
+     */
+    static long[] awaitStartup(LoadOptions options, int httpPort, Duration maxWait, PaymentTraffic traffic,
+                                       PaymentServiceGrpc.PaymentServiceBlockingStub stub)
+            throws IOException, InterruptedException {
+        HttpClient http = HttpClient.newHttpClient();
+        HttpRequest readiness = HttpRequest.newBuilder(URI.create("http://" + options.host() + ":" + httpPort + "/q/health/ready"))
+                .timeout(Duration.ofSeconds(1))
+                .build();
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        long firstResponse = 0;
+        long ready = 0;
+        while (firstResponse == 0 || ready == 0) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Application not ready after " + maxWait + ", see target/startup-app.log");
+            }
+            if (firstResponse == 0) {
+                try {
+                    stub.withDeadlineAfter(options.timeout().toMillis(), TimeUnit.MILLISECONDS).processPayment(traffic.next());
+                    firstResponse = System.nanoTime();
+                } catch (StatusRuntimeException e) {
+                    // Not listening yet
+                }
+            }
+            if (ready == 0) {
+                try {
+                    if (http.send(readiness, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        ready = System.nanoTime();
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+            }
+            Thread.sleep(10);
+        }
+        return new long[]{firstResponse, ready};
+    }
+
+    private static Recorder[] run(LoadOptions options, PaymentTraffic traffic, Duration window,
+                                  PaymentServiceGrpc.PaymentServiceStub stub) throws InterruptedException {
+        Recorder[] windows = new Recorder[(int) Math.max(1, options.duration().toNanos() / window.toNanos())];
+        for (int w = 0; w < windows.length; w++) {
+            windows[w] = new Recorder(3);
+        }
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        double intervalNanos = 1e9 / options.rate();
+        long start = System.nanoTime();
+        long end = start + windows.length * window.toNanos();
+
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            PaymentRequest request = traffic.next();
+            inFlight.acquireUninterruptibly();
+            Recorder recorder = windows[(int) ((intended - start) / window.toNanos())];
+            stub.withDeadlineAfter(options.timeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .processPayment(request, new StreamObserver<>() {
+                        @Override
+                        public void onNext(PaymentResponse response) {
+                        }
+
+                        @Override
+                        public void onError(Throwable t) {
+                            complete();
+                        }
+
+                        @Override
+                        public void onCompleted() {
+                            complete();
+                        }
+
+                        private void complete() {
+                            // Errors count with their latency: a timeout is the slowest answer there is
+                            recorder.recordValue(System.nanoTime() - intended);
+                            inFlight.release();
+                        }
+                    });
+        }
+
+        if (!inFlight.tryAcquire(options.maxInFlight(), options.timeout().toMillis() * 2, TimeUnit.MILLISECONDS)) {
+            System.err.printf("%d requests still in flight at shutdown%n", options.maxInFlight() - inFlight.availablePermits());
+        }
+        return windows;
+    }
+
+    private static Map<String, String> extraOptions(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (arg.startsWith("--") && split > 0) {
+                values.put(arg.substring(2, split), arg.substring(split + 1));
+            }
+        }
+        return values;
+    }
+}
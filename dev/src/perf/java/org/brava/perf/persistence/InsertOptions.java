@@ -0,0 +1,44 @@
+package org.brava.perf.persistence;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+record InsertOptions(
+        String jdbcUrl,
+        String username,
+        String password,
+        int rows,
+        List<Integer> batchSizes,
+        int runs
+) {
+
+    static InsertOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int split = arg.indexOf('=');
+            values.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+
+        return new InsertOptions(
+                values.getOrDefault("url", env("QUARKUS_DATASOURCE_JDBC_URL", "jdbc:postgresql://localhost:5432/payment_db")),
+                values.getOrDefault("user", env("QUARKUS_DATASOURCE_USERNAME", "postgres")),
+                values.getOrDefault("password", env("QUARKUS_DATASOURCE_PASSWORD", "postgres")),
+                Integer.parseInt(values.getOrDefault("rows", "20000")),
+                Arrays.stream(values.getOrDefault("batch-sizes", "1,10,50,100").split(","))
+                        .map(String::trim)
+                        .map(Integer::parseInt)
+                        .toList(),
+                Integer.parseInt(values.getOrDefault("runs", "3"))
+        );
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value != null ? value : fallback;
+    }
+}
@@ -0,0 +1,155 @@
+package org.brava.perf.persistence;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Properties;
+
+/**
+ * Compares saving payments one INSERT per round trip against JDBC batches rewritten into
+ * multi-row INSERTs, committing every {@code --batch-sizes} rows as the handler does for a
+ * request batch. Ids come from the pooled sequence in blocks of 50, like Hibernate allocates
+ * them, so both modes pay the same sequence cost. Inserted rows are deleted at the end.
+ */
+public final class InsertThroughput {
+
+    private static final String INSERT = """
+            INSERT INTO payments (id, idempotency_key, transaction_id, payer_id, payee_id, amount, currency,
+                                  description, status, message, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, NULL, 'APPROVED', 'Pagamento aprovado', ?, ?)""";
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    private InsertThroughput() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        InsertOptions options = InsertOptions.parse(args);
+        String prefix = "insert-throughput-" + System.currentTimeMillis() + "-";
+
+        System.out.printf("Inserting %d rows per run, %d runs - Batch sizes: %s%n",
+                options.rows(), options.runs(), options.batchSizes());
+        System.out.printf("%-8s %10s %12s %14s%n", "mode", "batch", "rows/s", "commit (ms)");
+
+        try (Connection connection = connect(options)) {
+            connection.setAutoCommit(false);
+            IdBlock ids = new IdBlock(connection);
+            long sequence = 0;
+            try {
+                for (int batchSize : options.batchSizes()) {
+                    for (boolean batched : new boolean[] {false, true}) {
+                        if (batchSize == 1 && batched) {
+                            continue;
+                        }
+                        // First run warms up the connection, statement cache and partition pages
+                        double best = 0;
+                        double commitMillis = 0;
+                        for (int run = 0; run <= options.runs(); run++) {
+                            long start = System.nanoTime();
+                            sequence = insert(connection, ids, prefix, sequence, options.rows(), batchSize, batched);
+                            long elapsed = System.nanoTime() - start;
+                            double rowsPerSecond = options.rows() / (elapsed / 1e9);
+                            if (run > 0 && rowsPerSecond > best) {
+                                best = rowsPerSecond;
+                                commitMillis = elapsed / 1e6 / Math.ceilDiv(options.rows(), batchSize);
+                            }
+                        }
+                        System.out.printf("%-8s %10d %12.0f %14.3f%n",
+                                batched ? "batched" : "single", batchSize, best, commitMillis);
+                    }
+                }
+            } finally {
+                cleanup(connection, prefix);
+            }
+        }
+    }
+
+    private static long insert(Connection connection, IdBlock ids, String prefix, long sequence,
+                               int rows, int batchSize, boolean batched) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            for (int inTransaction = 0, i = 0; i < rows; i++) {
+                long n = sequence++;
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                statement.setLong(1, ids.next());
+                statement.setString(2, prefix + "key-" + n);
+                statement.setString(3, prefix + "tx-" + n);
+                statement.setString(4, "payer-" + (n % 1000));
+                statement.setString(5, "payee-" + (n % 5000));
+                statement.setBigDecimal(6, BigDecimal.valueOf(10 + n % 90_000, 2));
+                statement.setString(7, "BRL");
+                statement.setTimestamp(8, now);
+                statement.setTimestamp(9, now);
+                if (batched) {
+                    statement.addBatch();
+                } else {
+                    statement.executeUpdate();
+                }
+                if (++inTransaction == batchSize || i == rows - 1) {
+                    if (batched) {
+                        statement.executeBatch();
+                    }
+                    connection.commit();
+                    inTransaction = 0;
+                }
+            }
+        }
+        return sequence;
+    }
+
+    private static void cleanup(Connection connection, String prefix) throws SQLException {
+        connection.rollback();
+        try (PreparedStatement payments = connection.prepareStatement(
+                "DELETE FROM payments WHERE idempotency_key LIKE ?");
+             PreparedStatement keys = connection.prepareStatement(
+                     "DELETE FROM payment_idempotency_keys WHERE idempotency_key LIKE ?");
+             PreparedStatement transactions = connection.prepareStatement(
+                     "DELETE FROM payment_transaction_ids WHERE transaction_id LIKE ?")) {
+            for (PreparedStatement statement : new PreparedStatement[] {payments, keys, transactions}) {
+                statement.setString(1, prefix + "%");
+                statement.executeUpdate();
+            }
+        }
+        connection.commit();
+    }
+
+    private static Connection connect(InsertOptions options) throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", options.username());
+        properties.setProperty("password", options.password());
+        // Same as the service datasource: executeBatch sends multi-row INSERTs
+        properties.setProperty("reWriteBatchedInserts", "true");
+        return DriverManager.getConnection(options.jdbcUrl(), properties);
+    }
+
+    /**
+     * Hands out ids from {@code payments_id_seq} the way Hibernate's pooled optimizer does: each
+     * {@code nextval} is the upper end of a block of {@value #ALLOCATION_SIZE} ids.
+     */
+    private static final class IdBlock {
+
+        private final Connection connection;
+        private long next;
+        private long last = -1;
+
+        IdBlock(Connection connection) {
+            this.connection = connection;
+        }
+
+        long next() throws SQLException {
+            if (next > last) {
+                try (PreparedStatement statement = connection.prepareStatement("SELECT nextval('payments_id_seq')");
+                     ResultSet result = statement.executeQuery()) {
+                    result.next();
+                    last = result.getLong(1);
+                    next = last - ALLOCATION_SIZE + 1;
+                }
+            }
+            return next++;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.brava.shell;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.brava.core.Payment;
+import org.brava.core.policies.PaymentPolicy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wires the shell services by hand, without CDI or a JTA transaction, so they can be
+ * driven from JMH.
+ */
+public final class ShellFixtures {
+
+    private ShellFixtures() {
+    }
+
+    public static RiskAggregateStore aggregates(PaymentRepository repository, boolean enabled) {
+        RiskAggregateStore aggregates = new RiskAggregateStore();
+        aggregates.repository = repository;
+        aggregates.transactions = new NoTransaction();
+        aggregates.enabled = enabled;
+        if (enabled) {
+            aggregates.rebuild();
+        }
+        return aggregates;
+    }
+
+    public static VelocitySketchStore velocity(PaymentRepository repository) {
+        VelocitySketchStore velocity = new VelocitySketchStore();
+        velocity.repository = repository;
+        velocity.transactions = new NoTransaction();
+        velocity.enabled = true;
+        velocity.window = Duration.ofHours(1);
+        velocity.generations = 4;
+        velocity.distinctPayeeRegisters = 1 << 22;
+        velocity.pairCounters = 1 << 18;
+        velocity.init();
+        velocity.rebuild();
+        return velocity;
+    }
+
+    public static RiskPolicyEngine riskEngine(PaymentRepository repository, RiskAggregateStore aggregates,
+                                              VelocitySketchStore velocity) {
+        RiskPolicyEngine engine = new RiskPolicyEngine();
+        engine.repository = repository;
+        engine.aggregates = aggregates;
+        engine.velocity = velocity;
+        return engine;
+    }
+
+    public static IdempotencyCache idempotency(PaymentRepository repository) {
+        IdempotencyCache idempotency = new IdempotencyCache();
+        idempotency.repository = repository;
+        idempotency.transactions = new NoTransaction();
+        idempotency.registry = new SimpleMeterRegistry();
+        idempotency.filterEnabled = true;
+        idempotency.expectedKeys = 1_000_000;
+        idempotency.falsePositiveRate = 0.01;
+        idempotency.cacheMaxSize = 100_000;
+        idempotency.cacheTtl = Duration.ofMinutes(10);
+        idempotency.init();
+        idempotency.warmFilter();
+        return idempotency;
+    }
+
+    public static PaymentMetrics metrics() {
+        PaymentMetrics metrics = new PaymentMetrics();
+        metrics.registry = new SimpleMeterRegistry();
+        metrics.slo = List.of(Duration.ofMillis(1), Duration.ofMillis(10), Duration.ofMillis(100), Duration.ofSeconds(1));
+        metrics.policySampleRate = 1.0;
+        metrics.stageSpans = false;
+        metrics.init();
+        return metrics;
+    }
+
+    public static ProcessPaymentHandler handler(PaymentRepository repository, PaymentPolicy policy, boolean aggregatesEnabled) {
+        AtomicLong sequence = new AtomicLong();
+        RiskAggregateStore aggregates = aggregates(repository, aggregatesEnabled);
+        VelocitySketchStore velocity = velocity(repository);
+
+        ProcessPaymentHandler handler = new ProcessPaymentHandler();
+        handler.repository = repository;
+        handler.riskEngine = riskEngine(repository, aggregates, velocity);
+        handler.composedPolicy = policy;
+        handler.aggregates = aggregates;
+        handler.velocity = velocity;
+        handler.idempotency = idempotency(repository);
+        handler.transactionIds = () -> "txn-" + sequence.incrementAndGet();
+        handler.metrics = metrics();
+        handler.audit = event -> {
+        };
+        handler.outbox = new NoOutbox();
+        return handler;
+    }
+
+    private static final class NoOutbox implements PaymentOutbox {
+
+        @Override
+        public void append(List<Payment> payments) {
+        }
+
+        @Override
+        public List<Entry> claim(int limit) {
+            return List.of();
+        }
+
+        @Override
+        public void delete(List<Entry> entries) {
+        }
+    }
+
+    private static final class NoTransaction implements TransactionSynchronizationRegistry {
+
+        @Override
+        public Object getTransactionKey() {
+            return null;
+        }
+
+        @Override
+        public void putResource(Object key, Object value) {
+            throw new IllegalStateException("No active transaction");
+        }
+
+        @Override
+        public Object getResource(Object key) {
+            return null;
+        }
+
+        @Override
+        public void registerInterposedSynchronization(Synchronization sync) {
+            throw new IllegalStateException("No active transaction");
+        }
+
+        @Override
+        public int getTransactionStatus() {
+            return Status.STATUS_NO_TRANSACTION;
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            throw new IllegalStateException("No active transaction");
+        }
+
+        @Override
+        public boolean getRollbackOnly() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.brava.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    @Test
+    void majorAmountsAreRoundedToTheCurrencyScale() {
+        assertThat(Money.ofMajor(12.34, "BRL").minorUnits()).isEqualTo(1_234);
+        assertThat(Money.ofMajor(1_500, "JPY").minorUnits()).isEqualTo(1_500);
+        assertThat(Money.ofMajor(-0.5, "BRL").minorUnits()).isEqualTo(-50);
+    }
+
+    @Test
+    void rejectsMajorAmountsWithoutAMinorUnitValue() {
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMajor(Double.NaN, "BRL"));
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMajor(Double.POSITIVE_INFINITY, "BRL"));
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMajor(Double.NEGATIVE_INFINITY, "BRL"));
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMajor(1e17, "BRL"));
+        assertThrows(IllegalArgumentException.class, () -> Money.ofMajor(-1e17, "BRL"));
+        assertThat(Money.ofMajor(1e16, "BRL").minorUnits()).isEqualTo(1_000_000_000_000_000_000L);
+    }
+
+    @Test
+    void upscalingPastTheLongRangeFails() {
+        Money yen = Money.ofMinor(Long.MAX_VALUE / 10, "JPY");
+
+        assertThrows(ArithmeticException.class, () -> yen.toMinor(Money.STORAGE_SCALE));
+        assertThrows(ArithmeticException.class, () -> Money.minorUnits(Long.MAX_VALUE / 10, Money.STORAGE_SCALE));
+        assertThat(Money.ofMinor(1_500, "JPY").toMinor(Money.STORAGE_SCALE)).isEqualTo(150_000);
+        assertThat(Money.ofMinor(1_999, "BRL").toMinor(0)).isEqualTo(19);
+    }
+
+    @Test
+    void onlyCurrenciesWithinTheStorageScaleAreStorable() {
+        assertThat(Money.isStorable("BRL")).isTrue();
+        assertThat(Money.isStorable("JPY")).isTrue();
+        assertThat(Money.isStorable("KWD")).isFalse();
+        assertThat(Money.isStorable("BHD")).isFalse();
+    }
+}
@@ -0,0 +1,114 @@
+package org.brava.core.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountMinSketchTest {
+
+    private static final long WINDOW_MILLIS = 3_600_000;
+    private static final int GENERATIONS = 4;
+    private static final int WIDTH = 1 << 16;
+    private static final long NOW = 1_760_000_000_000L;
+
+    @Test
+    void estimatesNeverUndercountAndStayCloseToExactCounts() {
+        CountMinSketch sketch = new CountMinSketch(WIDTH, WINDOW_MILLIS, GENERATIONS);
+        Random random = new Random(7);
+        int[] exact = new int[20_000];
+        long total = 0;
+        for (int key = 0; key < exact.length; key++) {
+            exact[key] = 1 + random.nextInt(20);
+            for (int i = 0; i < exact[key]; i++) {
+                sketch.add(hash(key), NOW);
+            }
+            total += exact[key];
+        }
+
+        // Count-Min bound: within e * total / width of the exact count for all but a few keys
+        double bound = Math.E * total / WIDTH;
+        long overcount = 0;
+        int outsideBound = 0;
+        for (int key = 0; key < exact.length; key++) {
+            int estimate = sketch.estimate(hash(key), NOW);
+            assertThat(estimate).isGreaterThanOrEqualTo(exact[key]);
+            overcount += estimate - exact[key];
+            if (estimate - exact[key] > bound) {
+                outsideBound++;
+            }
+        }
+        assertThat(outsideBound).isLessThan(exact.length / 20);
+        assertThat((double) overcount / exact.length).isLessThan(bound / 4);
+    }
+
+    @Test
+    void countsExpireWithTheWindow() {
+        CountMinSketch sketch = new CountMinSketch(WIDTH, WINDOW_MILLIS, GENERATIONS);
+        long epochMillis = WINDOW_MILLIS / GENERATIONS;
+        for (int i = 0; i < 10; i++) {
+            sketch.add(hash(1), NOW);
+        }
+        sketch.add(hash(1), NOW + 2 * epochMillis);
+
+        assertThat(sketch.estimate(hash(1), NOW + 2 * epochMillis)).isEqualTo(11);
+        // Still covered by the last generations epochs
+        assertThat(sketch.estimate(hash(1), NOW + (GENERATIONS - 1) * epochMillis)).isEqualTo(11);
+        // The first epoch left the window, the later one has not
+        assertThat(sketch.estimate(hash(1), NOW + GENERATIONS * epochMillis + epochMillis / 2)).isEqualTo(1);
+        assertThat(sketch.estimate(hash(1), NOW + 3 * WINDOW_MILLIS)).isZero();
+
+        // Too old to be counted once the window moved past it
+        sketch.add(hash(1), NOW);
+        assertThat(sketch.estimate(hash(1), NOW + 3 * WINDOW_MILLIS)).isZero();
+    }
+
+    @Test
+    void concurrentUpdatesCountLikeSequentialOnes() throws Exception {
+        CountMinSketch sequential = new CountMinSketch(WIDTH, WINDOW_MILLIS, GENERATIONS);
+        CountMinSketch concurrent = new CountMinSketch(WIDTH, WINDOW_MILLIS, GENERATIONS);
+        int threads = 8;
+        int addsPerThread = 64 * 300;
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < addsPerThread; i++) {
+                sequential.add(hash(i % 64), NOW);
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    for (int i = 0; i < addsPerThread; i++) {
+                        concurrent.add(hash(i % 64), NOW);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (int key = 0; key < 64; key++) {
+            int estimate = concurrent.estimate(hash(key), NOW);
+            assertThat(estimate).isGreaterThanOrEqualTo(threads * addsPerThread / 64);
+            assertThat(estimate).isEqualTo(sequential.estimate(hash(key), NOW));
+        }
+    }
+
+    static long hash(long value) {
+        long z = value + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
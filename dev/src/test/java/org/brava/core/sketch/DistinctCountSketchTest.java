@@ -0,0 +1,163 @@
+package org.brava.core.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.brava.core.sketch.CountMinSketchTest.hash;
+
+class DistinctCountSketchTest {
+
+    private static final long WINDOW_MILLIS = 3_600_000;
+    private static final int GENERATIONS = 4;
+    private static final int REGISTERS = 1 << 20;
+    private static final long NOW = 1_760_000_000_000L;
+
+    private static final int TRACKED_PAYERS = 200;
+    private static final long TRACKED_PAYER_BASE = 1_000_000;
+    private static final long PAYEE_BASE = 10_000_000;
+
+    @Test
+    void estimatesFollowExactDistinctCountsPerPayer() {
+        DistinctCountSketch sketch = new DistinctCountSketch(REGISTERS, WINDOW_MILLIS, GENERATIONS);
+        addBackground(sketch, new Random(11));
+
+        List<long[]> payments = trackedPayments(new Random(13));
+        for (long[] payment : payments) {
+            sketch.add(hash(payment[0]), hash(payment[1]), NOW);
+        }
+
+        int[] exact = exactDistinctPayees(payments);
+        double totalError = 0;
+        for (int p = 0; p < TRACKED_PAYERS; p++) {
+            int estimate = sketch.estimate(hash(TRACKED_PAYER_BASE + p), NOW);
+            double error = Math.abs(estimate - exact[p]) / (double) exact[p];
+            // 64 registers per payer: a standard error of about 13%
+            assertThat(error).isLessThan(0.5);
+            totalError += error;
+        }
+        assertThat(totalError / TRACKED_PAYERS).isLessThan(0.15);
+    }
+
+    @Test
+    void repeatedPayeesAreCountedOnce() {
+        DistinctCountSketch sketch = new DistinctCountSketch(REGISTERS, WINDOW_MILLIS, GENERATIONS);
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add(hash(1), hash(PAYEE_BASE), NOW);
+            sketch.add(hash(2), hash(PAYEE_BASE + i % 3), NOW);
+        }
+
+        assertThat(sketch.estimate(hash(1), NOW)).isEqualTo(1);
+        assertThat(sketch.estimate(hash(2), NOW)).isEqualTo(3);
+        assertThat(sketch.estimate(hash(3), NOW)).isZero();
+    }
+
+    @Test
+    void payeesExpireWithTheWindow() {
+        DistinctCountSketch sketch = new DistinctCountSketch(REGISTERS, WINDOW_MILLIS, GENERATIONS);
+        for (int i = 0; i < 100; i++) {
+            sketch.add(hash(1), hash(PAYEE_BASE + i), NOW);
+        }
+
+        assertThat(sketch.estimate(hash(1), NOW)).isBetween(70, 130);
+        assertThat(sketch.estimate(hash(1), NOW + WINDOW_MILLIS / 2)).isBetween(70, 130);
+        assertThat(sketch.estimate(hash(1), NOW + 2 * WINDOW_MILLIS)).isZero();
+
+        // Too old to be counted once the window moved past it
+        sketch.add(hash(1), hash(PAYEE_BASE + 100), NOW);
+        assertThat(sketch.estimate(hash(1), NOW + 2 * WINDOW_MILLIS)).isZero();
+    }
+
+    @Test
+    void concurrentUpdatesGiveTheSameEstimatesAsSequentialOnes() throws Exception {
+        DistinctCountSketch sequential = new DistinctCountSketch(REGISTERS, WINDOW_MILLIS, GENERATIONS);
+        DistinctCountSketch concurrent = new DistinctCountSketch(REGISTERS, WINDOW_MILLIS, GENERATIONS);
+        List<long[]> payments = trackedPayments(new Random(17));
+        for (long[] payment : payments) {
+            sequential.add(hash(payment[0]), hash(payment[1]), NOW);
+        }
+
+        // Registers only ever rise to the highest rank, so any interleaving ends in the same state
+        List<long[]> shuffled = new ArrayList<>(payments);
+        Collections.shuffle(shuffled, new Random(19));
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int first = t;
+                results.add(pool.submit(() -> {
+                    for (int i = first; i < shuffled.size(); i += threads) {
+                        long[] payment = shuffled.get(i);
+                        concurrent.add(hash(payment[0]), hash(payment[1]), NOW);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int[] exact = exactDistinctPayees(payments);
+        for (int p = 0; p < TRACKED_PAYERS; p++) {
+            long payer = hash(TRACKED_PAYER_BASE + p);
+            assertThat(concurrent.estimate(payer, NOW)).isEqualTo(sequential.estimate(payer, NOW));
+            assertThat(Math.abs(concurrent.estimate(payer, NOW) - exact[p]) / (double) exact[p]).isLessThan(0.5);
+        }
+    }
+
+    /**
+     * Many payers with a handful of payees each: the load on the shared pool that every
+     * tracked payer's estimate has to discount.
+     */
+    private static void addBackground(DistinctCountSketch sketch, Random random) {
+        for (int payer = 0; payer < 20_000; payer++) {
+            for (int i = 0; i < 5; i++) {
+                sketch.add(hash(payer), hash(PAYEE_BASE + random.nextInt(50_000)), NOW);
+            }
+        }
+    }
+
+    /**
+     * Payers with 30 to 500 distinct payees, each paid one to three times.
+     */
+    private static List<long[]> trackedPayments(Random random) {
+        List<long[]> payments = new ArrayList<>();
+        for (int p = 0; p < TRACKED_PAYERS; p++) {
+            int payees = 30 + random.nextInt(471);
+            for (int i = 0; i < payees; i++) {
+                long payee = PAYEE_BASE + random.nextInt(1_000_000);
+                for (int repeat = random.nextInt(3); repeat >= 0; repeat--) {
+                    payments.add(new long[]{TRACKED_PAYER_BASE + p, payee});
+                }
+            }
+        }
+        return payments;
+    }
+
+    private static int[] exactDistinctPayees(List<long[]> payments) {
+        List<Set<Long>> payees = new ArrayList<>(TRACKED_PAYERS);
+        for (int p = 0; p < TRACKED_PAYERS; p++) {
+            payees.add(new HashSet<>());
+        }
+        for (long[] payment : payments) {
+            payees.get((int) (payment[0] - TRACKED_PAYER_BASE)).add(payment[1]);
+        }
+        int[] exact = new int[TRACKED_PAYERS];
+        for (int p = 0; p < TRACKED_PAYERS; p++) {
+            exact[p] = payees.get(p).size();
+        }
+        return exact;
+    }
+}
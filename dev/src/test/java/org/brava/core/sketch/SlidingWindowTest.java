@@ -0,0 +1,102 @@
+package org.brava.core.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SlidingWindowTest {
+
+    private static final long WINDOW_MILLIS = 60_000;
+    private static final int GENERATIONS = 4;
+
+    @Test
+    void rejectsWindowThatCannotBeSplit() {
+        assertThrows(IllegalArgumentException.class, () -> new SlidingWindow(WINDOW_MILLIS, 0));
+        assertThrows(IllegalArgumentException.class, () -> new SlidingWindow(3, GENERATIONS));
+    }
+
+    @Test
+    void epochsAndBanksFollowTheClock() {
+        SlidingWindow window = new SlidingWindow(WINDOW_MILLIS, GENERATIONS);
+
+        assertThat(window.banks()).isEqualTo(GENERATIONS + 1);
+        assertThat(window.epochOf(0)).isEqualTo(0);
+        assertThat(window.epochOf(14_999)).isEqualTo(0);
+        assertThat(window.epochOf(15_000)).isEqualTo(1);
+        assertThat(window.epochOf(-1)).isEqualTo(-1);
+        assertThat(window.bankOf(-1)).isEqualTo(GENERATIONS);
+        assertThat(window.bankOf(GENERATIONS + 1)).isEqualTo(0);
+    }
+
+    @Test
+    void onlyTheLastGenerationsAreLive() {
+        SlidingWindow window = new SlidingWindow(WINDOW_MILLIS, GENERATIONS);
+
+        assertThat(window.isLive(10, 10)).isTrue();
+        assertThat(window.isLive(10 - GENERATIONS + 1, 10)).isTrue();
+        assertThat(window.isLive(10 - GENERATIONS, 10)).isFalse();
+        assertThat(window.isLive(11, 10)).isFalse();
+    }
+
+    @Test
+    void advancingClearsTheBanksThatLeftTheWindow() {
+        SlidingWindow window = new SlidingWindow(WINDOW_MILLIS, GENERATIONS);
+        List<Integer> cleared = new ArrayList<>();
+
+        assertThat(window.advance(10, cleared::add)).isEqualTo(10);
+        assertThat(cleared).isEmpty();
+
+        // One step: only the spare bank, which the next epoch will use
+        assertThat(window.advance(11, cleared::add)).isEqualTo(11);
+        assertThat(cleared).containsExactly(window.bankOf(12));
+
+        // A stale epoch neither moves the window nor clears anything
+        cleared.clear();
+        assertThat(window.advance(9, cleared::add)).isEqualTo(11);
+        assertThat(cleared).isEmpty();
+
+        // A jump past the whole window clears every bank once
+        assertThat(window.advance(11 + 10 * GENERATIONS, cleared::add)).isEqualTo(11 + 10 * GENERATIONS);
+        assertThat(cleared).hasSize(window.banks());
+        assertThat(cleared).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void concurrentAdvancesSettleOnTheLatestEpoch() throws Exception {
+        SlidingWindow window = new SlidingWindow(WINDOW_MILLIS, GENERATIONS);
+        window.advance(0, bank -> {
+        });
+        AtomicLong clears = new AtomicLong();
+
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int offset = t;
+                results.add(threads.submit(() -> {
+                    for (long epoch = offset; epoch <= 10_000; epoch += 8) {
+                        window.advance(epoch, bank -> clears.incrementAndGet());
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertThat(window.advance(0, bank -> {
+        })).isEqualTo(10_000);
+        // Every move forward clears at least the spare bank
+        assertThat(clears.get()).isGreaterThan(0);
+    }
+}
@@ -0,0 +1,166 @@
+package org.brava.infrastructure.audit;
+
+import org.brava.core.Hashing;
+import org.brava.core.Money;
+import org.brava.core.Payment;
+import org.brava.shell.AuditEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedAuditJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final ExecutorService threads = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void stopThreads() {
+        threads.shutdownNow();
+    }
+
+    @Test
+    void failedRotationFailsEveryWaiterAndIsRetriedByTheNextAppend() throws Exception {
+        CountDownLatch opening = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean diskFull = new AtomicBoolean(true);
+        MappedAuditJournal journal = new MappedAuditJournal() {
+            @Override
+            Segment open(long sequence) throws IOException {
+                if (sequence > 1 && diskFull.get()) {
+                    opening.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new IOException("No space left on device");
+                }
+                return super.open(sequence);
+            }
+        };
+        configure(journal, 2);
+        journal.append(event("key-1"));
+        journal.append(event("key-2"));
+
+        List<Future<?>> appends = new ArrayList<>();
+        appends.add(threads.submit(() -> journal.append(event("blocked-0"))));
+        assertThat(opening.await(10, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i < 8; i++) {
+            String key = "blocked-" + i;
+            appends.add(threads.submit(() -> journal.append(event(key))));
+        }
+        // Lets the other appends find the full segment and wait on the rotation
+        Thread.sleep(200);
+        release.countDown();
+        for (Future<?> append : appends) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> append.get(10, TimeUnit.SECONDS));
+            assertThat(failure.getCause()).isInstanceOf(UncheckedIOException.class);
+        }
+
+        diskFull.set(false);
+        journal.append(event("key-3"));
+        journal.close();
+
+        assertThat(segments()).hasSize(2);
+        assertThat(csv()).containsExactly("key-1", "key-2", "key-3");
+    }
+
+    @Test
+    void oversizedIdentifiersAreCutOnACodePointAndCarryTheirHash() {
+        String key = "é".repeat(40);
+        String payer = "payer-" + "€".repeat(20);
+        ByteBuffer segment = ByteBuffer.allocate(AuditLayout.HEADER_SIZE + AuditLayout.RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        AuditLayout.write(segment, AuditLayout.HEADER_SIZE, new AuditEvent(payment(key, payer), 0, 0, 0, 0, 0));
+
+        // 55 bytes left for the prefix: 27 two-byte chars, not half of the 28th
+        assertThat(AuditLayout.getString(segment, AuditLayout.HEADER_SIZE + AuditLayout.IDEMPOTENCY_KEY,
+                AuditLayout.IDEMPOTENCY_KEY_LENGTH))
+                .isEqualTo("é".repeat(27) + "...#" + String.format("%016x", Hashing.hash(key)));
+        // 31 bytes left: "payer-" and 8 three-byte chars
+        assertThat(AuditLayout.getString(segment, AuditLayout.HEADER_SIZE + AuditLayout.PAYER_ID,
+                AuditLayout.PARTY_ID_LENGTH))
+                .isEqualTo("payer-" + "€".repeat(8) + "...#" + String.format("%016x", Hashing.hash(payer)));
+        assertThat(AuditLayout.getString(segment, AuditLayout.HEADER_SIZE + AuditLayout.PAYEE_ID,
+                AuditLayout.PARTY_ID_LENGTH))
+                .isEqualTo("payee");
+    }
+
+    @Test
+    void valuesThatFitAreStoredWhole() {
+        byte[] utf8 = "ab€".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(AuditLayout.codePointBoundary(utf8, 2)).isEqualTo(2);
+        assertThat(AuditLayout.codePointBoundary(utf8, 3)).isEqualTo(2);
+        assertThat(AuditLayout.codePointBoundary(utf8, 4)).isEqualTo(2);
+
+        String key = "k".repeat(AuditLayout.IDEMPOTENCY_KEY_LENGTH - 1);
+        ByteBuffer segment = ByteBuffer.allocate(AuditLayout.HEADER_SIZE + AuditLayout.RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        AuditLayout.write(segment, AuditLayout.HEADER_SIZE, new AuditEvent(payment(key, "payer"), 0, 0, 0, 0, 0));
+        assertThat(AuditLayout.getString(segment, AuditLayout.HEADER_SIZE + AuditLayout.IDEMPOTENCY_KEY,
+                AuditLayout.IDEMPOTENCY_KEY_LENGTH))
+                .isEqualTo(key);
+    }
+
+    private void configure(MappedAuditJournal journal, int recordsPerSegment) {
+        journal.enabled = true;
+        journal.directory = directory;
+        journal.segmentSize = AuditLayout.HEADER_SIZE + recordsPerSegment * AuditLayout.RECORD_SIZE;
+        journal.maxSegments = 64;
+        journal.init();
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(MappedAuditJournal::isSegmentFile).sorted().toList();
+        }
+    }
+
+    private List<String> csv() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8)) {
+            for (Path segment : segments()) {
+                AuditJournalReader.read(segment, out);
+            }
+        }
+        List<String> keys = new ArrayList<>();
+        for (String line : bytes.toString(StandardCharsets.UTF_8).split("\n")) {
+            keys.add(line.split(",")[2]);
+        }
+        return keys;
+    }
+
+    private static AuditEvent event(String idempotencyKey) {
+        return new AuditEvent(payment(idempotencyKey, "payer"), 0, 0, 0, 0, 0);
+    }
+
+    private static Payment payment(String idempotencyKey, String payerId) {
+        return Payment.createPending(idempotencyKey, payerId, "payee", Money.ofMinor(100_00, "BRL"), "BRL", "audit test")
+                .approve("audit-test-tx")
+                .withId(1L);
+    }
+}
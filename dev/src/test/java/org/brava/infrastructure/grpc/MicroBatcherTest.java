@@ -0,0 +1,185 @@
+package org.brava.infrastructure.grpc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MicroBatcherTest {
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService workers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        timer.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    @Test
+    void slowBatchesHoldLingeredItemsInsteadOfFailing() throws InterruptedException {
+        SubmissionPublisher<Integer> requests = new SubmissionPublisher<>(workers, 16);
+        Recorder recorder = new Recorder(Duration.ofMillis(20));
+        new MicroBatcher<>(requests, 10, Duration.ofMillis(5), timer).subscribe(recorder);
+
+        for (int i = 0; i < 200; i++) {
+            requests.submit(i);
+            if (i % 7 == 0) {
+                Thread.sleep(1);
+            }
+        }
+        requests.close();
+
+        assertThat(recorder.completed.await(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(recorder.failure.get()).isNull();
+        List<Integer> received = new ArrayList<>();
+        for (List<Integer> batch : recorder.batches()) {
+            assertThat(batch.size()).isBetween(1, 10);
+            received.addAll(batch);
+        }
+        assertThat(received).hasSize(200);
+        for (int i = 0; i < received.size(); i++) {
+            assertThat(received.get(i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void lingerClosesPartialBatch() throws InterruptedException {
+        SubmissionPublisher<Integer> requests = new SubmissionPublisher<>(workers, 16);
+        Recorder recorder = new Recorder(Duration.ZERO);
+        new MicroBatcher<>(requests, 100, Duration.ofMillis(5), timer).subscribe(recorder);
+
+        requests.submit(1);
+        requests.submit(2);
+        requests.submit(3);
+
+        assertThat(recorder.firstBatch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(recorder.batches()).containsExactly(List.of(1, 2, 3));
+        requests.close();
+    }
+
+    @Test
+    void batchClosedWithoutDemandIsEmittedOnRequest() throws InterruptedException {
+        SubmissionPublisher<Integer> requests = new SubmissionPublisher<>(workers, 16);
+        Recorder recorder = new Recorder(Duration.ZERO, 0);
+        new MicroBatcher<>(requests, 100, Duration.ofMillis(5), timer).subscribe(recorder);
+
+        requests.submit(1);
+        requests.submit(2);
+        Thread.sleep(100);
+        assertThat(recorder.batches()).isEmpty();
+        assertThat(recorder.failure.get()).isNull();
+
+        recorder.subscription.request(1);
+        assertThat(recorder.firstBatch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(recorder.batches()).containsExactly(List.of(1, 2));
+        requests.close();
+    }
+
+    @Test
+    void upstreamIsOnlyAskedForOneBatchAhead() throws InterruptedException {
+        CountingPublisher requests = new CountingPublisher();
+        Recorder recorder = new Recorder(Duration.ZERO, 0);
+        new MicroBatcher<>(requests, 10, Duration.ofMillis(5), timer).subscribe(recorder);
+
+        assertThat(requests.requested).isEqualTo(10);
+        recorder.subscription.request(5);
+        assertThat(requests.requested).isEqualTo(10);
+    }
+
+    private final class Recorder implements Flow.Subscriber<List<Integer>> {
+
+        private final Duration processing;
+        private final long initialRequest;
+        private final List<List<Integer>> batches = new ArrayList<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final CountDownLatch firstBatch = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+
+        Recorder(Duration processing) {
+            this(processing, 1);
+        }
+
+        Recorder(Duration processing, long initialRequest) {
+            this.processing = processing;
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(List<Integer> batch) {
+            synchronized (batches) {
+                batches.add(List.copyOf(batch));
+            }
+            firstBatch.countDown();
+            if (initialRequest == 0) {
+                return;
+            }
+            // Like transformToUniAndConcatenate: the next batch is requested when this one is done
+            workers.execute(() -> {
+                try {
+                    Thread.sleep(processing);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                subscription.request(1);
+            });
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            failure.set(throwable);
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+        List<List<Integer>> batches() {
+            synchronized (batches) {
+                return List.copyOf(batches);
+            }
+        }
+    }
+
+    private static final class CountingPublisher implements Flow.Publisher<Integer> {
+
+        private volatile long requested;
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Integer> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    requested += n;
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.brava.infrastructure.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SnowflakeTransactionIdGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 250_000;
+
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        SnowflakeTransactionIdGenerator generator = generator(Optional.of(7), true);
+
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        List<Future<long[]>> results = new ArrayList<>();
+        try {
+            Callable<long[]> task = () -> {
+                long[] ids = new long[IDS_PER_THREAD];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = generator.nextId();
+                }
+                return ids;
+            };
+            for (int t = 0; t < THREADS; t++) {
+                results.add(threads.submit(task));
+            }
+
+            Set<Long> seen = new HashSet<>(THREADS * IDS_PER_THREAD * 2);
+            for (Future<long[]> result : results) {
+                long previous = Long.MIN_VALUE;
+                for (long id : result.get()) {
+                    assertThat(seen.add(id)).isTrue();
+                    // Each thread sees its own ids strictly increasing
+                    assertThat(id).isGreaterThan(previous);
+                    assertThat(nodeOf(id)).isEqualTo(7L);
+                    previous = id;
+                }
+            }
+            assertThat(seen).hasSize(THREADS * IDS_PER_THREAD);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void borrowingStaysWithinCapUnderSustainedLoad() throws Exception {
+        SnowflakeTransactionIdGenerator generator = generator(Optional.of(1), true);
+
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        List<Future<Long>> results = new ArrayList<>();
+        try {
+            long start = System.nanoTime();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(threads.submit(() -> {
+                    long maxAhead = Long.MIN_VALUE;
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        long id = generator.nextId();
+                        long ahead = millisOf(id) - (System.currentTimeMillis() - SnowflakeTransactionIdGenerator.EPOCH_MILLIS);
+                        maxAhead = Math.max(maxAhead, ahead);
+                    }
+                    return maxAhead;
+                }));
+            }
+            for (Future<Long> result : results) {
+                assertThat(result.get()).isLessThanOrEqualTo(SnowflakeTransactionIdGenerator.MAX_BORROWED_MILLIS);
+            }
+            long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+            // Throughput is bounded by the sequence space: one millisecond holds 4096 ids
+            long generated = (long) THREADS * IDS_PER_THREAD;
+            long capacity = (elapsedMillis + SnowflakeTransactionIdGenerator.MAX_BORROWED_MILLIS + 1)
+                    * (SnowflakeTransactionIdGenerator.SEQUENCE_MASK + 1);
+            assertThat(generated).isLessThanOrEqualTo(capacity);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void missingNodeIdFailsStartupWhenRequired() {
+        SnowflakeTransactionIdGenerator generator = new SnowflakeTransactionIdGenerator();
+        generator.configuredNodeId = Optional.empty();
+        generator.requireNodeId = true;
+
+        assertThrows(IllegalStateException.class, generator::init);
+    }
+
+    @Test
+    void nodeIdOutOfRangeFailsStartup() {
+        SnowflakeTransactionIdGenerator generator = new SnowflakeTransactionIdGenerator();
+        generator.configuredNodeId = Optional.of(1024);
+        generator.requireNodeId = true;
+
+        assertThrows(IllegalStateException.class, generator::init);
+    }
+
+    @Test
+    void nodeIdIsDerivedWhenNotRequired() {
+        SnowflakeTransactionIdGenerator generator = generator(Optional.empty(), false);
+
+        assertThat(nodeOf(generator.nextId())).isBetween(0L, SnowflakeTransactionIdGenerator.MAX_NODE_ID);
+    }
+
+    private static SnowflakeTransactionIdGenerator generator(Optional<Integer> nodeId, boolean required) {
+        SnowflakeTransactionIdGenerator generator = new SnowflakeTransactionIdGenerator();
+        generator.configuredNodeId = nodeId;
+        generator.requireNodeId = required;
+        generator.init();
+        return generator;
+    }
+
+    private static long nodeOf(long id) {
+        return (id >>> SnowflakeTransactionIdGenerator.SEQUENCE_BITS) & SnowflakeTransactionIdGenerator.MAX_NODE_ID;
+    }
+
+    private static long millisOf(long id) {
+        return id >>> (SnowflakeTransactionIdGenerator.NODE_BITS + SnowflakeTransactionIdGenerator.SEQUENCE_BITS);
+    }
+}
@@ -0,0 +1,171 @@
+package org.brava.infrastructure.persistence;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.brava.core.Money;
+import org.brava.core.Payment;
+import org.brava.infrastructure.outbox.InMemoryPaymentEventSink;
+import org.brava.shell.PaymentEvent;
+import org.brava.shell.PaymentOutbox;
+import org.brava.shell.ProcessPaymentCommand;
+import org.brava.shell.ProcessPaymentHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Outbox behaviour against the migrated schema (PostgreSQL from Dev Services). The relay
+ * threads are off in the test profile, so each test claims and deletes rows itself.
+ */
+@QuarkusTest
+class PaymentOutboxTest {
+
+    @Inject
+    PaymentOutbox outbox;
+
+    @Inject
+    InMemoryPaymentEventSink sink;
+
+    @Inject
+    ProcessPaymentHandler handler;
+
+    @Inject
+    DataSource dataSource;
+
+    @BeforeEach
+    void emptyOutbox() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DELETE FROM payment_outbox");
+        }
+        sink.drain();
+    }
+
+    @Test
+    void appendedEventsAreClaimedPublishedAndDeleted() {
+        List<Payment> payments = List.of(payment(1), payment(2), payment(3));
+        QuarkusTransaction.requiringNew().run(() -> outbox.append(payments));
+
+        List<PaymentOutbox.Entry> claimed = QuarkusTransaction.requiringNew().call(() -> {
+            List<PaymentOutbox.Entry> entries = outbox.claim(10);
+            sink.publish(entries.stream().map(PaymentOutbox.Entry::event).toList());
+            outbox.delete(entries);
+            return entries;
+        });
+
+        assertThat(claimed).hasSize(3);
+        List<PaymentEvent> published = sink.drain();
+        assertThat(published.stream().map(PaymentEvent::paymentId).toList()).containsExactly(1L, 2L, 3L);
+        assertThat(published.get(0).transactionId()).isEqualTo("outbox-test-tx-1");
+        assertThat(published.get(0).payerId()).isEqualTo("payer-1");
+        assertThat(QuarkusTransaction.requiringNew().call(() -> outbox.claim(10))).isEmpty();
+    }
+
+    @Test
+    void concurrentClaimsSkipRowsLockedByEachOther() throws Exception {
+        List<Payment> payments = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            payments.add(payment(i));
+        }
+        QuarkusTransaction.requiringNew().run(() -> outbox.append(payments));
+
+        CountDownLatch claimedFirst = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<PaymentOutbox.Entry>> first = CompletableFuture.supplyAsync(() ->
+                QuarkusTransaction.requiringNew().call(() -> {
+                    List<PaymentOutbox.Entry> entries = outbox.claim(5);
+                    claimedFirst.countDown();
+                    // Holds the row locks until the second claim has run
+                    release.await(30, TimeUnit.SECONDS);
+                    outbox.delete(entries);
+                    return entries;
+                }));
+        assertThat(claimedFirst.await(30, TimeUnit.SECONDS)).isTrue();
+
+        List<PaymentOutbox.Entry> second;
+        try {
+            second = QuarkusTransaction.requiringNew().call(() -> {
+                List<PaymentOutbox.Entry> entries = outbox.claim(10);
+                outbox.delete(entries);
+                return entries;
+            });
+        } finally {
+            release.countDown();
+        }
+
+        Set<Long> firstIds = ids(first.get(30, TimeUnit.SECONDS));
+        Set<Long> secondIds = ids(second);
+        assertThat(firstIds).hasSize(5);
+        assertThat(secondIds).hasSize(5);
+        Set<Long> all = new HashSet<>(firstIds);
+        all.addAll(secondIds);
+        assertThat(all).hasSize(10);
+        assertThat(QuarkusTransaction.requiringNew().call(() -> outbox.claim(10))).isEmpty();
+    }
+
+    @Test
+    void rolledBackTransactionLeavesNoEvent() throws SQLException {
+        QuarkusTransaction.requiringNew().run(() -> {
+            outbox.append(List.of(payment(1)));
+            QuarkusTransaction.setRollbackOnly();
+        });
+        assertThat(countEvents()).isZero();
+
+        ProcessPaymentCommand rolledBack = command();
+        QuarkusTransaction.requiringNew().run(() -> {
+            handler.handle(rolledBack);
+            QuarkusTransaction.setRollbackOnly();
+        });
+        assertThat(countEvents()).isZero();
+
+        Payment committed = handler.handle(command());
+        assertThat(countEvents()).isEqualTo(1);
+        assertThat(QuarkusTransaction.requiringNew().call(() -> outbox.claim(10)).get(0).event().paymentId())
+                .isEqualTo(committed.id());
+    }
+
+    private static Payment payment(long id) {
+        return Payment.createPending("outbox-test-" + id, "payer-" + id, "payee-" + id,
+                        Money.ofMinor(100_00 + id, "BRL"), "BRL", "outbox test")
+                .approve("outbox-test-tx-" + id)
+                .withId(id);
+    }
+
+    private static ProcessPaymentCommand command() {
+        return new ProcessPaymentCommand("outbox-test-" + UUID.randomUUID(), "outbox-payer", "outbox-payee",
+                Money.ofMinor(50_00, "BRL"), "BRL", "outbox test");
+    }
+
+    private static Set<Long> ids(List<PaymentOutbox.Entry> entries) {
+        Set<Long> ids = new HashSet<>();
+        for (PaymentOutbox.Entry entry : entries) {
+            ids.add(entry.id());
+        }
+        return ids;
+    }
+
+    private long countEvents() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement count = connection.prepareStatement("SELECT count(*) FROM payment_outbox");
+             ResultSet row = count.executeQuery()) {
+            row.next();
+            return row.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.brava.infrastructure.persistence;
+
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Plan checks against the migrated schema (PostgreSQL from Dev Services): the risk and
+ * keyset queries must prune old partitions and stay on the covering index, and a month that
+ * reached the DEFAULT partition must still get its own partition later.
+ */
+@QuarkusTest
+class PaymentQueryPlanTest {
+
+    private static final String PREFIX = "plan-test-";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final String PAYER_PAGE_QUERY = """
+            SELECT id, created_at FROM payments
+            WHERE payer_id = ? AND (created_at, id) > (?, ?)
+            ORDER BY created_at, id
+            LIMIT 500""";
+
+    @Inject
+    DataSource dataSource;
+
+    private final LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+    private final LocalDate strayMonth = currentMonth.plusYears(5);
+
+    @BeforeEach
+    void seed() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            // An old month outside every risk window, so there is something to prune, and last
+            // month, which the 30-day window reaches
+            execute(connection, "SELECT create_payments_partition('" + currentMonth.minusMonths(3) + "')");
+            execute(connection, "SELECT create_payments_partition('" + currentMonth.minusMonths(1) + "')");
+            try (PreparedStatement insert = connection.prepareStatement(insertSql())) {
+                LocalDateTime now = LocalDateTime.now();
+                for (int i = 0; i < 5_000; i++) {
+                    bind(insert, i, "payer-" + (i % 500), "payee-" + (i % 20), now.minusHours(i % 600));
+                    insert.addBatch();
+                }
+                for (int i = 5_000; i < 5_500; i++) {
+                    bind(insert, i, "payer-" + (i % 500), "payee-" + (i % 20), now.minusMonths(3));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            // Autocommit: VACUUM cannot run in a transaction, and index-only scans need the visibility map
+            execute(connection, "VACUUM ANALYZE payments");
+        }
+    }
+
+    @AfterEach
+    void cleanUp() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            execute(connection, "DELETE FROM payments WHERE idempotency_key LIKE '" + PREFIX + "%'");
+            execute(connection, "DELETE FROM payment_idempotency_keys WHERE idempotency_key LIKE '" + PREFIX + "%'");
+            execute(connection, "DELETE FROM payment_transaction_ids WHERE transaction_id LIKE '" + PREFIX + "%'");
+            execute(connection, "DROP TABLE IF EXISTS " + partition(strayMonth));
+        }
+    }
+
+    @Test
+    void riskStatsQueryPrunesOldPartitionsAndStaysIndexOnly() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp payerStart = Timestamp.valueOf(now.minusDays(30));
+        Timestamp payeeStart = Timestamp.valueOf(now.minusDays(7));
+
+        String plan;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement(
+                     "EXPLAIN (FORMAT TEXT) " + PaymentRepositoryImpl.RISK_STATS_QUERY)) {
+            explain.setTimestamp(1, payerStart);
+            explain.setTimestamp(2, payerStart);
+            explain.setTimestamp(3, payerStart);
+            explain.setString(4, "payee-7");
+            explain.setTimestamp(5, payeeStart);
+            explain.setString(6, "payee-7");
+            explain.setTimestamp(7, payeeStart);
+            explain.setString(8, "payer-7");
+            explain.setTimestamp(9, payerStart);
+            explain.setTimestamp(10, payeeStart);
+            plan = read(explain);
+        }
+
+        assertThat(plan).doesNotContain(partition(currentMonth.minusMonths(3)));
+        assertThat(plan).contains("Index Only Scan using " + partition(currentMonth) + "_payer_id_created_at_id");
+        assertThat(plan).doesNotContain("Seq Scan on " + partition(currentMonth));
+    }
+
+    @Test
+    void payerPageQueryPrunesOldPartitionsAndUsesKeysetIndex() throws SQLException {
+        String plan;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN (FORMAT TEXT) " + PAYER_PAGE_QUERY)) {
+            explain.setString(1, "payer-7");
+            explain.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now().minusDays(10)));
+            explain.setLong(3, 0);
+            plan = read(explain);
+        }
+
+        assertThat(plan).doesNotContain(partition(currentMonth.minusMonths(3)));
+        assertThat(plan).contains("using " + partition(currentMonth) + "_payer_id_created_at_id");
+        assertThat(plan).doesNotContain("Seq Scan on " + partition(currentMonth));
+    }
+
+    @Test
+    void monthInDefaultPartitionStillGetsItsOwnPartition() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement insert = connection.prepareStatement(insertSql())) {
+                bind(insert, 10_000, "payer-stray", "payee-stray", strayMonth.atTime(12, 0));
+                insert.executeUpdate();
+            }
+            assertThat(partitionOf(connection, PREFIX + "key-10000")).isEqualTo("payments_default");
+
+            execute(connection, "SELECT ensure_payments_partitions(3)");
+
+            assertThat(partitionOf(connection, PREFIX + "key-10000")).isEqualTo(partition(strayMonth));
+            assertThat(count(connection, "SELECT count(*) FROM payments_default WHERE idempotency_key LIKE '"
+                    + PREFIX + "%'")).isZero();
+
+            // The moved row's keys are registered again, so a duplicate still fails
+            try (PreparedStatement insert = connection.prepareStatement(insertSql())) {
+                bind(insert, 10_000, "payer-stray", "payee-stray", currentMonth.atTime(12, 0));
+                assertThrows(SQLException.class, insert::executeUpdate);
+            }
+        }
+    }
+
+    private static String insertSql() {
+        return """
+                INSERT INTO payments (id, idempotency_key, transaction_id, payer_id, payee_id, amount, currency,
+                                      status, created_at, updated_at)
+                VALUES (nextval('payments_id_seq'), ?, ?, ?, ?, ?, 'BRL', ?, ?, ?)""";
+    }
+
+    private static void bind(PreparedStatement insert, int n, String payerId, String payeeId, LocalDateTime createdAt)
+            throws SQLException {
+        insert.setString(1, PREFIX + "key-" + n);
+        insert.setString(2, PREFIX + "tx-" + n);
+        insert.setString(3, payerId);
+        insert.setString(4, payeeId);
+        insert.setBigDecimal(5, BigDecimal.valueOf(100 + n % 1000, 2));
+        insert.setString(6, n % 5 == 0 ? "DECLINED" : "APPROVED");
+        insert.setTimestamp(7, Timestamp.valueOf(createdAt));
+        insert.setTimestamp(8, Timestamp.valueOf(createdAt));
+    }
+
+    private static String partition(LocalDate month) {
+        return "payments_" + month.format(PARTITION_SUFFIX);
+    }
+
+    private static String partitionOf(Connection connection, String idempotencyKey) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT tableoid::regclass::text FROM payments WHERE idempotency_key = ?")) {
+            query.setString(1, idempotencyKey);
+            try (ResultSet row = query.executeQuery()) {
+                row.next();
+                return row.getString(1);
+            }
+        }
+    }
+
+    private static long count(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet row = statement.executeQuery(sql)) {
+            row.next();
+            return row.getLong(1);
+        }
+    }
+
+    private static String read(PreparedStatement explain) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (ResultSet rows = explain.executeQuery()) {
+            while (rows.next()) {
+                plan.append(rows.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.brava.shell;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.brava.core.Money;
+import org.brava.core.Payment;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A key first processed on another replica never reached this instance's idempotency filter,
+ * which was warmed at startup. The filter reports it as new, so the handler tries the insert and
+ * the unique key is what catches the duplicate; the stored payment has to come from the database.
+ */
+@QuarkusTest
+class IdempotencyFallbackTest {
+
+    @Inject
+    ProcessPaymentHandler handler;
+
+    @Inject
+    PaymentRepository repository;
+
+    @Inject
+    IdempotencyCache idempotency;
+
+    @Inject
+    DataSource dataSource;
+
+    @Test
+    void keyWrittenElsewhereIsAnsweredWithTheStoredPayment() throws SQLException {
+        String key = "fallback-test-" + UUID.randomUUID();
+        // Saved behind the cache's back, as another replica would
+        Payment stored = QuarkusTransaction.requiringNew().call(() -> repository.save(
+                Payment.createPending(key, "fallback-payer", "fallback-payee",
+                                Money.ofMinor(100_00, "BRL"), "BRL", "written elsewhere")
+                        .approve("fallback-test-tx-" + UUID.randomUUID())));
+
+        assertThrows(RuntimeException.class, () -> handler.handle(command(key)));
+
+        Optional<String> expected = Optional.of(stored.transactionId());
+        assertThat(handler.findProcessed(key).map(Payment::transactionId)).isEqualTo(expected);
+        assertThat(countPayments(key)).isEqualTo(1);
+        // Learned by the fallback, so a retry is answered without another insert
+        assertThat(idempotency.find(key).map(Payment::transactionId)).isEqualTo(expected);
+        assertThat(handler.handle(command(key)).transactionId()).isEqualTo(stored.transactionId());
+    }
+
+    private static ProcessPaymentCommand command(String key) {
+        return new ProcessPaymentCommand(key, "fallback-payer", "fallback-payee",
+                Money.ofMinor(50_00, "BRL"), "BRL", "retried here");
+    }
+
+    private long countPayments(String key) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement count = connection.prepareStatement(
+                     "SELECT count(*) FROM payments WHERE idempotency_key = ?")) {
+            count.setString(1, key);
+            try (ResultSet row = count.executeQuery()) {
+                row.next();
+                return row.getLong(1);
+            }
+        }
+    }
+}